@@ -0,0 +1,92 @@
+package com.requillion.solutions.inventory.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Shared setup for the image benchmarks: an ImageService wired by hand with the application's
+ * default limits, and camera-like JPEGs to feed it. The pictures are gradients with sensor-style
+ * noise, so they encode to roughly the size of a real photo rather than compressing to nothing.
+ */
+final class BenchmarkImages {
+
+    private static final long SEED = 20240601L;
+
+    private BenchmarkImages() {
+    }
+
+    static ImageService imageService() {
+        ImageProcessingLimiter limiter = new ImageProcessingLimiter(new SimpleMeterRegistry());
+        setField(limiter, "memoryBudget", DataSize.ofMegabytes(256));
+        setField(limiter, "admissionWait", Duration.ofSeconds(2));
+        setField(limiter, "retryAfter", Duration.ofSeconds(5));
+        limiter.init();
+
+        ImageService imageService = new ImageService(limiter);
+        setField(imageService, "maxPixels", 100_000_000L);
+        return imageService;
+    }
+
+    static byte[] photo(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(SEED);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(41) - 20;
+                int r = clamp(255 * x / width + noise);
+                int g = clamp(255 * y / height + noise);
+                int b = clamp(128 + (int) (96 * Math.sin((x + y) / 60.0)) + noise);
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(0.92f);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    static Object getField(Object target, String name) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            return field.get(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read " + name, e);
+        }
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name, e);
+        }
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
@@ -0,0 +1,62 @@
+package com.requillion.solutions.inventory.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The upload pipeline's single decode against decoding the upload once per rendition, as the
+ * pipeline did before. The per-rendition side builds the same three renditions through the
+ * on-demand entry points, each of which decodes on its own. Run with -prof gc to compare
+ * allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class DecodeOnceBenchmark {
+
+    // Upload width; 16:9 and wider than the 1920 cap, so every rendition is a real resize
+    @Param({"2560", "3840"})
+    public int width;
+
+    private ImageService imageService;
+    private Path upload;
+    private Resource resource;
+    private byte[] data;
+
+    @Setup
+    public void setUp() throws IOException {
+        imageService = BenchmarkImages.imageService();
+        data = BenchmarkImages.photo(width, width * 9 / 16);
+        upload = Files.createTempFile("benchmark-upload", ".jpg");
+        Files.write(upload, data);
+        resource = new FileSystemResource(upload);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(upload);
+    }
+
+    @Benchmark
+    public ImageService.ProcessedImage decodeOnce() throws IOException {
+        return imageService.processImage(resource, 42);
+    }
+
+    // The bytes are already in memory here, which only favours this side
+    @Benchmark
+    public void decodePerRendition(Blackhole blackhole) throws IOException {
+        blackhole.consume(imageService.scaleToWidth(data, 1920));
+        blackhole.consume(imageService.renderBadgedImage(data, 1920, 42));
+        blackhole.consume(imageService.squareThumbnail(data, 200));
+    }
+}
@@ -0,0 +1,60 @@
+package com.requillion.solutions.inventory.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The upload pipeline with and without ImageService's workspace pool. Unpooled runs empty the
+ * pool before every call, so each decode builds a fresh JPEG writer, output buffer and scaling
+ * rasters as it would without one. Run with -prof gc to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class WorkspacePoolBenchmark {
+
+    // Upload width; uploads are 16:9, so 1280 decodes at full size and 3840 is subsampled
+    @Param({"1280", "3840"})
+    public int width;
+
+    @Param({"true", "false"})
+    public boolean pooled;
+
+    private ImageService imageService;
+    private Queue<?> workspaces;
+    private Path upload;
+    private Resource resource;
+
+    @Setup
+    public void setUp() throws IOException {
+        imageService = BenchmarkImages.imageService();
+        workspaces = (Queue<?>) BenchmarkImages.getField(imageService, "workspaces");
+        upload = Files.createTempFile("benchmark-upload", ".jpg");
+        Files.write(upload, BenchmarkImages.photo(width, width * 9 / 16));
+        // Uploads arrive as multipart temp files, which the pipeline reads in place
+        resource = new FileSystemResource(upload);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(upload);
+    }
+
+    @Benchmark
+    public ImageService.ProcessedImage processImage() throws IOException {
+        if (!pooled) {
+            workspaces.clear();
+        }
+        return imageService.processImage(resource, 42);
+    }
+}
@@ -0,0 +1,41 @@
+package com.requillion.solutions.inventory.actuator;
+
+import com.requillion.solutions.inventory.dto.ImageReprocessJobDTO;
+import com.requillion.solutions.inventory.service.ImageReprocessingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts, cancels and reports on the job that rebuilds existing item renditions.
+ * Reads return the latest job with its rate, ETA and error count (empty if none has run).
+ */
+@Component
+@Endpoint(id = "imagereprocessing")
+@RequiredArgsConstructor
+public class ImageReprocessingEndpoint {
+
+    private final ImageReprocessingService reprocessingService;
+
+    @ReadOperation
+    public ImageReprocessJobDTO progress() {
+        return reprocessingService.getProgress()
+                .map(ImageReprocessJobDTO::toDTO)
+                .orElse(null);
+    }
+
+    @WriteOperation
+    public ImageReprocessJobDTO start() {
+        reprocessingService.startJob();
+        return progress();
+    }
+
+    @DeleteOperation
+    public ImageReprocessJobDTO cancel() {
+        reprocessingService.cancelJob();
+        return progress();
+    }
+}
@@ -0,0 +1,25 @@
+package com.requillion.solutions.inventory.actuator;
+
+import com.requillion.solutions.inventory.dto.ImageStorageDTO;
+import com.requillion.solutions.inventory.service.ItemImageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports what content-addressed image storage saves: every rendition row counted at
+ * full size (logical) against each distinct blob counted once (physical).
+ */
+@Component
+@Endpoint(id = "imagestorage")
+@RequiredArgsConstructor
+public class ImageStorageEndpoint {
+
+    private final ItemImageService itemImageService;
+
+    @ReadOperation
+    public ImageStorageDTO imageStorage() {
+        return ImageStorageDTO.toDTO(itemImageService.getStorageUsage());
+    }
+}
@@ -1,14 +1,18 @@
 package com.requillion.solutions.inventory.controller;
 
 import com.requillion.solutions.inventory.dto.AllClaimsResponseDTO;
+import com.requillion.solutions.inventory.dto.ThumbnailMode;
 import com.requillion.solutions.inventory.security.RequestContext;
 import com.requillion.solutions.inventory.security.UserContext;
 import com.requillion.solutions.inventory.service.ClaimService;
+import com.requillion.solutions.inventory.service.InventoryVersionService;
 import com.requillion.solutions.inventory.util.LoggerUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -20,13 +24,27 @@ import java.util.UUID;
 public class AllClaimsController {
 
     private final ClaimService claimService;
+    private final InventoryVersionService inventoryVersionService;
 
     @GetMapping("/all")
     public ResponseEntity<List<AllClaimsResponseDTO>> getAllClaims(
-            @PathVariable UUID inventoryId) {
-        LoggerUtil.debug(log, "getAllClaims: inventory=%s", inventoryId);
+            @PathVariable UUID inventoryId,
+            @RequestParam(value = "thumbnails", required = false) String thumbnails,
+            ServletWebRequest request) {
+        LoggerUtil.debug(log, "getAllClaims: inventory=%s, thumbnails=%s", inventoryId, thumbnails);
         RequestContext context = UserContext.getContext();
-        List<AllClaimsResponseDTO> claims = claimService.getAllClaims(context.getUser(), inventoryId);
-        return ResponseEntity.ok(claims);
+        ThumbnailMode thumbnailMode = ThumbnailMode.fromParameter(thumbnails);
+        String eTag = inventoryVersionService.getListETag(context.getUser(), inventoryId).orElse(null);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null;
+        }
+        List<AllClaimsResponseDTO> claims = claimService.getAllClaims(context.getUser(), inventoryId, thumbnailMode);
+        return versionedResponse(eTag).body(claims);
+    }
+
+    // Lists are always revalidated; the inventory version answers that with one lookup
+    private ResponseEntity.BodyBuilder versionedResponse(String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate());
+        return eTag != null ? response.eTag(eTag) : response;
     }
 }
@@ -9,12 +9,15 @@ import com.requillion.solutions.inventory.model.Category;
 import com.requillion.solutions.inventory.security.RequestContext;
 import com.requillion.solutions.inventory.security.UserContext;
 import com.requillion.solutions.inventory.service.CategoryService;
+import com.requillion.solutions.inventory.service.InventoryVersionService;
 import com.requillion.solutions.inventory.util.LoggerUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -26,13 +29,19 @@ import java.util.UUID;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final InventoryVersionService inventoryVersionService;
 
     @GetMapping
-    public ResponseEntity<List<CategoryResponseDTO>> getCategories(@PathVariable UUID inventoryId) {
+    public ResponseEntity<List<CategoryResponseDTO>> getCategories(@PathVariable UUID inventoryId,
+                                                                   ServletWebRequest request) {
         LoggerUtil.debug(log, "getCategories: inventory=%s", inventoryId);
         RequestContext context = UserContext.getContext();
+        String eTag = inventoryVersionService.getListETag(context.getUser(), inventoryId).orElse(null);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null;
+        }
         List<CategoryWithItemCount> categories = categoryService.getCategories(context.getUser(), inventoryId);
-        return ResponseEntity.ok(CategoryResponseDTO.toDTO(categories));
+        return versionedResponse(eTag).body(CategoryResponseDTO.toDTO(categories));
     }
 
     @GetMapping("/{categoryId}")
@@ -109,4 +118,10 @@ public class CategoryController {
         categoryService.reorderCategories(context.getUser(), inventoryId, categoryIds);
         return ResponseEntity.noContent().build();
     }
+
+    // Lists are always revalidated; the inventory version answers that with one lookup
+    private ResponseEntity.BodyBuilder versionedResponse(String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate());
+        return eTag != null ? response.eTag(eTag) : response;
+    }
 }
@@ -1,20 +1,23 @@
 package com.requillion.solutions.inventory.controller;
 
+import com.requillion.solutions.inventory.dto.ItemCursor;
+import com.requillion.solutions.inventory.dto.ItemListDTO;
 import com.requillion.solutions.inventory.dto.ItemRequestDTO;
 import com.requillion.solutions.inventory.dto.ItemResponseDTO;
 import com.requillion.solutions.inventory.dto.ItemWithThumbnailDTO;
+import com.requillion.solutions.inventory.dto.ThumbnailMode;
 import com.requillion.solutions.inventory.security.RequestContext;
 import com.requillion.solutions.inventory.security.UserContext;
 import com.requillion.solutions.inventory.service.ItemService;
 import com.requillion.solutions.inventory.util.LoggerUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,12 +32,16 @@ public class CategoryItemController {
     @GetMapping
     public ResponseEntity<List<ItemWithThumbnailDTO>> getItems(
             @PathVariable UUID inventoryId,
-            @PathVariable UUID categoryId) {
-        LoggerUtil.debug(log, "getItems: inventory=%s, category=%s", inventoryId, categoryId);
+            @PathVariable UUID categoryId,
+            @RequestParam(value = "thumbnails", required = false) String thumbnails,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        LoggerUtil.debug(log, "getItems: inventory=%s, category=%s, thumbnails=%s, after=%s, limit=%s",
+                inventoryId, categoryId, thumbnails, after, limit);
         RequestContext context = UserContext.getContext();
-        List<ItemWithThumbnailDTO> items = itemService.getItemsWithThumbnailsByCategory(
-                context.getUser(), inventoryId, categoryId);
-        return ResponseEntity.ok(items);
+        ItemListDTO items = itemService.getItemsWithThumbnailsByCategory(context.getUser(), inventoryId, categoryId,
+                ThumbnailMode.fromParameter(thumbnails), ItemCursor.parse(after), limit);
+        return listResponse(items);
     }
 
     @PatchMapping("/{itemId}/undelete")
@@ -53,15 +60,23 @@ public class CategoryItemController {
             @PathVariable UUID inventoryId,
             @PathVariable UUID categoryId,
             @RequestParam("description") String description,
-            @RequestParam(value = "image", required = false) MultipartFile image) throws IOException {
+            @RequestParam(value = "image", required = false) MultipartFile image) {
         LoggerUtil.debug(log, "createItem: inventory=%s, category=%s", inventoryId, categoryId);
         RequestContext context = UserContext.getContext();
 
         ItemRequestDTO dto = new ItemRequestDTO(description);
-        byte[] imageData = image != null && !image.isEmpty() ? image.getBytes() : null;
+        Resource imageData = image != null && !image.isEmpty() ? image.getResource() : null;
 
         ItemResponseDTO item = itemService.createItemInCategoryDTO(
                 context.getUser(), inventoryId, categoryId, dto, imageData);
         return ResponseEntity.ok(item);
     }
+
+    private ResponseEntity<List<ItemWithThumbnailDTO>> listResponse(ItemListDTO list) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (list.nextCursor() != null) {
+            response.header(ItemListDTO.NEXT_CURSOR_HEADER, list.nextCursor().toString());
+        }
+        return response.body(list.items());
+    }
 }
@@ -0,0 +1,93 @@
+package com.requillion.solutions.inventory.controller;
+
+import com.requillion.solutions.inventory.dto.ItemCursor;
+import com.requillion.solutions.inventory.dto.ThumbnailSpriteDTO;
+import com.requillion.solutions.inventory.security.RequestContext;
+import com.requillion.solutions.inventory.security.UserContext;
+import com.requillion.solutions.inventory.service.ThumbnailSpriteService;
+import com.requillion.solutions.inventory.util.LoggerUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/v1/inventories/{inventoryId}/categories/{categoryId}/thumbnails")
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryThumbnailController {
+
+    private final ThumbnailSpriteService thumbnailSpriteService;
+
+    // Tile coordinates for the atlas at sprite.jpg?v=<version>&after=<same cursor>; the
+    // next atlas of a large category starts at nextCursor
+    @GetMapping("/sprite")
+    public ResponseEntity<ThumbnailSpriteDTO> getSprite(
+            @PathVariable UUID inventoryId,
+            @PathVariable UUID categoryId,
+            @RequestParam(value = "after", required = false) String after,
+            ServletWebRequest request) {
+        LoggerUtil.debug(log, "getSprite: inventory=%s, category=%s, after=%s", inventoryId, categoryId, after);
+        RequestContext context = UserContext.getContext();
+
+        ThumbnailSpriteService.SpriteSource source = thumbnailSpriteService.getSpriteSource(
+                context.getUser(), inventoryId, categoryId, ItemCursor.parse(after));
+        if (isNotModified(request, source.version(), null)) {
+            return null;
+        }
+
+        ThumbnailSpriteService.Sprite sprite = thumbnailSpriteService.getSprite(source);
+        return ResponseEntity.ok()
+                .eTag(sprite.version())
+                .cacheControl(spriteCacheControl(sprite.version(), null))
+                .body(ThumbnailSpriteDTO.toDTO(sprite));
+    }
+
+    @GetMapping("/sprite.jpg")
+    public ResponseEntity<byte[]> getSpriteImage(
+            @PathVariable UUID inventoryId,
+            @PathVariable UUID categoryId,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "v", required = false) String requestedVersion,
+            ServletWebRequest request) {
+        LoggerUtil.debug(log, "getSpriteImage: inventory=%s, category=%s, after=%s, v=%s",
+                inventoryId, categoryId, after, requestedVersion);
+        RequestContext context = UserContext.getContext();
+
+        ThumbnailSpriteService.SpriteSource source = thumbnailSpriteService.getSpriteSource(
+                context.getUser(), inventoryId, categoryId, ItemCursor.parse(after));
+        if (isNotModified(request, source.version(), requestedVersion)) {
+            return null;
+        }
+
+        ThumbnailSpriteService.Sprite sprite = thumbnailSpriteService.getSpriteWithImage(source);
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .eTag(sprite.version())
+                .cacheControl(spriteCacheControl(sprite.version(), requestedVersion))
+                .body(sprite.image());
+    }
+
+    // Same rule as item images: only a URL carrying the current version is immutable
+    private CacheControl spriteCacheControl(String version, String requestedVersion) {
+        return version.equals(requestedVersion)
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+    }
+
+    private boolean isNotModified(ServletWebRequest request, String version, String requestedVersion) {
+        if (!request.checkNotModified(version)) {
+            return false;
+        }
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL,
+                spriteCacheControl(version, requestedVersion).getHeaderValue());
+        return true;
+    }
+}
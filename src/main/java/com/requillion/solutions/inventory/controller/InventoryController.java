@@ -8,12 +8,15 @@ import com.requillion.solutions.inventory.model.Inventory;
 import com.requillion.solutions.inventory.security.RequestContext;
 import com.requillion.solutions.inventory.security.UserContext;
 import com.requillion.solutions.inventory.service.InventoryService;
+import com.requillion.solutions.inventory.service.InventoryVersionService;
 import com.requillion.solutions.inventory.util.LoggerUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -25,6 +28,7 @@ import java.util.UUID;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final InventoryVersionService inventoryVersionService;
 
     @GetMapping
     public ResponseEntity<List<InventoryResponseDTO>> getInventories() {
@@ -43,11 +47,16 @@ public class InventoryController {
     }
 
     @GetMapping("/{inventoryId}")
-    public ResponseEntity<InventoryResponseDTO> getInventory(@PathVariable UUID inventoryId) {
+    public ResponseEntity<InventoryResponseDTO> getInventory(@PathVariable UUID inventoryId,
+                                                             ServletWebRequest request) {
         LoggerUtil.debug(log, "getInventory: %s", inventoryId);
         RequestContext context = UserContext.getContext();
+        String eTag = inventoryVersionService.getListETag(context.getUser(), inventoryId).orElse(null);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null;
+        }
         InventoryWithMeta inventory = inventoryService.getInventory(context.getUser(), inventoryId);
-        return ResponseEntity.ok(InventoryResponseDTO.toDTO(
+        return versionedResponse(eTag).body(InventoryResponseDTO.toDTO(
                 inventory.inventory(), inventory.isOwner(), inventory.userRole(), inventory.itemCount(), inventory.isFinished()));
     }
 
@@ -80,4 +89,10 @@ public class InventoryController {
         inventoryService.deleteInventory(context.getUser(), inventoryId);
         return ResponseEntity.noContent().build();
     }
+
+    // Lists are always revalidated; the inventory version answers that with one lookup
+    private ResponseEntity.BodyBuilder versionedResponse(String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate());
+        return eTag != null ? response.eTag(eTag) : response;
+    }
 }
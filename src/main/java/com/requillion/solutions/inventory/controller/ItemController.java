@@ -1,23 +1,37 @@
 package com.requillion.solutions.inventory.controller;
 
+import com.requillion.solutions.inventory.dto.ItemChangesDTO;
+import com.requillion.solutions.inventory.dto.ItemCursor;
+import com.requillion.solutions.inventory.dto.ItemListDTO;
 import com.requillion.solutions.inventory.dto.ItemRequestDTO;
 import com.requillion.solutions.inventory.dto.ItemResponseDTO;
 import com.requillion.solutions.inventory.dto.ItemWithThumbnailDTO;
+import com.requillion.solutions.inventory.dto.ThumbnailMode;
+import com.requillion.solutions.inventory.model.ItemImage;
 import com.requillion.solutions.inventory.security.RequestContext;
 import com.requillion.solutions.inventory.security.UserContext;
+import com.requillion.solutions.inventory.service.ItemExportService;
+import com.requillion.solutions.inventory.service.ItemImageService;
+import com.requillion.solutions.inventory.service.InventoryVersionService;
 import com.requillion.solutions.inventory.service.ItemService;
 import com.requillion.solutions.inventory.util.LoggerUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/v1/inventories/{inventoryId}/items")
@@ -26,24 +40,68 @@ import java.util.UUID;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ItemExportService itemExportService;
+    private final InventoryVersionService inventoryVersionService;
 
     @GetMapping
-    public ResponseEntity<List<ItemWithThumbnailDTO>> getItems(@PathVariable UUID inventoryId) {
-        LoggerUtil.debug(log, "getItems: inventory=%s", inventoryId);
+    public ResponseEntity<List<ItemWithThumbnailDTO>> getItems(
+            @PathVariable UUID inventoryId,
+            @RequestParam(value = "thumbnails", required = false) String thumbnails,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            ServletWebRequest request) {
+        LoggerUtil.debug(log, "getItems: inventory=%s, thumbnails=%s, after=%s, limit=%s",
+                inventoryId, thumbnails, after, limit);
         RequestContext context = UserContext.getContext();
-        List<ItemWithThumbnailDTO> items = itemService.getItemsWithThumbnails(context.getUser(), inventoryId);
-        return ResponseEntity.ok(items);
+        ThumbnailMode thumbnailMode = ThumbnailMode.fromParameter(thumbnails);
+        ItemCursor cursor = ItemCursor.parse(after);
+        String eTag = inventoryVersionService.getListETag(context.getUser(), inventoryId).orElse(null);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null;
+        }
+        ItemListDTO items = itemService.getItemsWithThumbnails(context.getUser(), inventoryId,
+                thumbnailMode, cursor, limit);
+        return listResponse(items, eTag);
     }
 
     @GetMapping("/my-claims")
-    public ResponseEntity<List<ItemWithThumbnailDTO>> getMyClaimedItems(@PathVariable UUID inventoryId) {
-        LoggerUtil.debug(log, "getMyClaimedItems: inventory=%s", inventoryId);
+    public ResponseEntity<List<ItemWithThumbnailDTO>> getMyClaimedItems(
+            @PathVariable UUID inventoryId,
+            @RequestParam(value = "thumbnails", required = false) String thumbnails) {
+        LoggerUtil.debug(log, "getMyClaimedItems: inventory=%s, thumbnails=%s", inventoryId, thumbnails);
         RequestContext context = UserContext.getContext();
         List<ItemWithThumbnailDTO> items = itemService.getClaimedItemsWithThumbnails(
-                context.getUser(), inventoryId);
+                context.getUser(), inventoryId, ThumbnailMode.fromParameter(thumbnails));
         return ResponseEntity.ok(items);
     }
 
+    // Entries changed since the watermark from a previous call, for refreshing without a full reload
+    @GetMapping("/changes")
+    public ResponseEntity<ItemChangesDTO> getItemChanges(
+            @PathVariable UUID inventoryId,
+            @RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "thumbnails", required = false) String thumbnails) {
+        LoggerUtil.debug(log, "getItemChanges: inventory=%s, since=%s, thumbnails=%s", inventoryId, since, thumbnails);
+        RequestContext context = UserContext.getContext();
+        ItemChangesDTO changes = itemService.getItemChanges(context.getUser(), inventoryId, since,
+                ThumbnailMode.fromParameter(thumbnails));
+        return ResponseEntity.ok(changes);
+    }
+
+    // The whole listing as one JSON array, written to the response as it is read
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItems(
+            @PathVariable UUID inventoryId,
+            @RequestParam(value = "thumbnails", required = false) String thumbnails) {
+        LoggerUtil.debug(log, "exportItems: inventory=%s, thumbnails=%s", inventoryId, thumbnails);
+        RequestContext context = UserContext.getContext();
+        StreamingResponseBody body = itemExportService.streamItems(context.getUser(), inventoryId,
+                ThumbnailMode.fromParameter(thumbnails));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping("/{itemId}")
     public ResponseEntity<ItemResponseDTO> getItem(
             @PathVariable UUID inventoryId,
@@ -58,12 +116,12 @@ public class ItemController {
     public ResponseEntity<ItemResponseDTO> createItem(
             @PathVariable UUID inventoryId,
             @RequestParam("description") String description,
-            @RequestParam(value = "image", required = false) MultipartFile image) throws IOException {
+            @RequestParam(value = "image", required = false) MultipartFile image) {
         LoggerUtil.debug(log, "createItem: inventory=%s", inventoryId);
         RequestContext context = UserContext.getContext();
 
         ItemRequestDTO dto = new ItemRequestDTO(description);
-        byte[] imageData = image != null && !image.isEmpty() ? image.getBytes() : null;
+        Resource imageData = image != null && !image.isEmpty() ? image.getResource() : null;
 
         ItemResponseDTO item = itemService.createItemDTO(context.getUser(), inventoryId, dto, imageData);
         return ResponseEntity.ok(item);
@@ -84,10 +142,10 @@ public class ItemController {
     public ResponseEntity<ItemResponseDTO> updateItemImage(
             @PathVariable UUID inventoryId,
             @PathVariable UUID itemId,
-            @RequestParam("image") MultipartFile image) throws IOException {
+            @RequestParam("image") MultipartFile image) {
         LoggerUtil.debug(log, "updateItemImage: inventory=%s, item=%s", inventoryId, itemId);
         RequestContext context = UserContext.getContext();
-        ItemResponseDTO item = itemService.updateItemImageDTO(context.getUser(), inventoryId, itemId, image.getBytes());
+        ItemResponseDTO item = itemService.updateItemImageDTO(context.getUser(), inventoryId, itemId, image.getResource());
         return ResponseEntity.ok(item);
     }
 
@@ -122,26 +180,78 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}/image")
-    public ResponseEntity<byte[]> getItemImage(
+    public ResponseEntity<Resource> getItemImage(
             @PathVariable UUID inventoryId,
-            @PathVariable UUID itemId) {
-        LoggerUtil.debug(log, "getItemImage: inventory=%s, item=%s", inventoryId, itemId);
+            @PathVariable UUID itemId,
+            @RequestParam(value = "w", required = false) Integer width,
+            @RequestParam(value = "v", required = false) String version,
+            ServletWebRequest request) {
+        LoggerUtil.debug(log, "getItemImage: inventory=%s, item=%s, w=%s", inventoryId, itemId, width);
         RequestContext context = UserContext.getContext();
-        byte[] image = itemService.getItemImage(context.getUser(), inventoryId, itemId);
-        return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_JPEG)
-                .body(image);
+
+        Optional<ItemImage> current = itemService.findItemImageVersion(context.getUser(), inventoryId, itemId, width);
+        if (current.isPresent() && isNotModified(request, current.get(), version)) {
+            return null;
+        }
+
+        ItemImageService.ImageContent image = itemService.getItemImage(context.getUser(), inventoryId, itemId, width);
+        return imageResponse(image, version);
     }
 
     @GetMapping("/{itemId}/thumbnail")
-    public ResponseEntity<byte[]> getItemThumbnail(
+    public ResponseEntity<Resource> getItemThumbnail(
             @PathVariable UUID inventoryId,
-            @PathVariable UUID itemId) {
-        LoggerUtil.debug(log, "getItemThumbnail: inventory=%s, item=%s", inventoryId, itemId);
+            @PathVariable UUID itemId,
+            @RequestParam(value = "w", required = false) Integer size,
+            @RequestParam(value = "v", required = false) String version,
+            ServletWebRequest request) {
+        LoggerUtil.debug(log, "getItemThumbnail: inventory=%s, item=%s, w=%s", inventoryId, itemId, size);
         RequestContext context = UserContext.getContext();
-        byte[] thumbnail = itemService.getItemThumbnail(context.getUser(), inventoryId, itemId);
+
+        Optional<ItemImage> current = itemService.findItemThumbnailVersion(context.getUser(), inventoryId, itemId, size);
+        if (current.isPresent() && isNotModified(request, current.get(), version)) {
+            return null;
+        }
+
+        ItemImageService.ImageContent thumbnail = itemService.getItemThumbnail(context.getUser(), inventoryId, itemId, size);
+        return imageResponse(thumbnail, version);
+    }
+
+    // Image bytes are content addressed, so the hash is a strong validator. A URL carrying
+    // the current hash as ?v= can never change and is cached for good; anything else revalidates
+    private CacheControl imageCacheControl(String contentHash, String version) {
+        return contentHash.equals(version)
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+    }
+
+    private boolean isNotModified(ServletWebRequest request, ItemImage current, String version) {
+        if (!request.checkNotModified(current.getContentHash(), current.getUpdatedAt().toEpochMilli())) {
+            return false;
+        }
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL,
+                imageCacheControl(current.getContentHash(), version).getHeaderValue());
+        return true;
+    }
+
+    private ResponseEntity<Resource> imageResponse(ItemImageService.ImageContent image, String version) {
         return ResponseEntity.ok()
                 .contentType(MediaType.IMAGE_JPEG)
-                .body(thumbnail);
+                .eTag(image.contentHash())
+                .lastModified(image.lastModified())
+                .cacheControl(imageCacheControl(image.contentHash(), version))
+                .body(image.resource());
+    }
+
+    // Lists are always revalidated; the inventory version answers that with one lookup
+    private ResponseEntity<List<ItemWithThumbnailDTO>> listResponse(ItemListDTO list, String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate());
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        if (list.nextCursor() != null) {
+            response.header(ItemListDTO.NEXT_CURSOR_HEADER, list.nextCursor().toString());
+        }
+        return response.body(list.items());
     }
 }
@@ -13,15 +13,18 @@ public record ClaimedItemDTO(
         String categoryName,
         String description,
         String thumbnailBase64,
+        String thumbnailUrl,
+        String imagePlaceholder,
         ClaimStatus claimStatus,
         boolean isCollected,
         int claimCount
 ) {
-    public static ClaimedItemDTO fromClaim(ItemClaim claim, int claimCount) {
+    public static ClaimedItemDTO fromClaim(ItemClaim claim, int claimCount, byte[] thumbnailData,
+                                           String thumbnailVersion) {
         Item item = claim.getItem();
         String thumbnail = null;
-        if (item.getThumbnail() != null && item.getThumbnail().length > 0) {
-            thumbnail = Base64.getEncoder().encodeToString(item.getThumbnail());
+        if (thumbnailData != null && thumbnailData.length > 0) {
+            thumbnail = Base64.getEncoder().encodeToString(thumbnailData);
         }
         return new ClaimedItemDTO(
                 item.getId(),
@@ -29,6 +32,8 @@ public record ClaimedItemDTO(
                 item.getCategory() != null ? item.getCategory().getName() : null,
                 item.getDescription(),
                 thumbnail,
+                ItemWithThumbnailDTO.thumbnailUrl(item, thumbnailVersion),
+                item.getImagePlaceholder(),
                 claim.getStatus(),
                 item.getIsCollected(),
                 claimCount
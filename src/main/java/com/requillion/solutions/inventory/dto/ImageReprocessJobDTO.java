@@ -0,0 +1,44 @@
+package com.requillion.solutions.inventory.dto;
+
+import com.requillion.solutions.inventory.model.ImageReprocessJob;
+import com.requillion.solutions.inventory.model.ImageReprocessStatus;
+import com.requillion.solutions.inventory.service.ImageReprocessingService;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ImageReprocessJobDTO(
+        UUID id,
+        ImageReprocessStatus status,
+        int totalItems,
+        int processedItems,
+        int failedItems,
+        int remainingItems,
+        Double itemsPerSecond,
+        Long etaSeconds,
+        String lastError,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant completedAt
+) {
+    public static ImageReprocessJobDTO toDTO(ImageReprocessingService.JobProgress progress) {
+        ImageReprocessJob job = progress.job();
+        int remaining = job.getStatus() == ImageReprocessStatus.RUNNING
+                ? Math.max(0, job.getTotalItems() - job.getProcessedItems() - job.getFailedItems())
+                : 0;
+        return new ImageReprocessJobDTO(
+                job.getId(),
+                job.getStatus(),
+                job.getTotalItems(),
+                job.getProcessedItems(),
+                job.getFailedItems(),
+                remaining,
+                progress.itemsPerSecond(),
+                progress.estimatedRemaining() != null ? progress.estimatedRemaining().toSeconds() : null,
+                job.getLastError(),
+                job.getCreatedAt(),
+                job.getUpdatedAt(),
+                job.getCompletedAt()
+        );
+    }
+}
@@ -0,0 +1,25 @@
+package com.requillion.solutions.inventory.dto;
+
+import com.requillion.solutions.inventory.repository.ItemImageRepository;
+
+public record ImageStorageDTO(
+        long renditions,
+        long blobs,
+        long logicalBytes,
+        long physicalBytes,
+        long savedBytes,
+        double savedRatio
+) {
+    public static ImageStorageDTO toDTO(ItemImageRepository.StorageUsage usage) {
+        long saved = usage.getLogicalBytes() - usage.getPhysicalBytes();
+        double ratio = usage.getLogicalBytes() == 0 ? 0 : (double) saved / usage.getLogicalBytes();
+        return new ImageStorageDTO(
+                usage.getRenditions(),
+                usage.getBlobs(),
+                usage.getLogicalBytes(),
+                usage.getPhysicalBytes(),
+                saved,
+                ratio
+        );
+    }
+}
@@ -0,0 +1,15 @@
+package com.requillion.solutions.inventory.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+// Changes to an item listing since the client's watermark. Items are upserted by id, removed
+// ids dropped (they may include ids the client never had). When reset is set the items are
+// the whole listing and replace what the client holds. The watermark is opaque: send it
+// back as ?since= on the next call.
+public record ItemChangesDTO(
+        List<ItemWithThumbnailDTO> items,
+        List<UUID> removedItemIds,
+        String watermark,
+        boolean reset
+) {}
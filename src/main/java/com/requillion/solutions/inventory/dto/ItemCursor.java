@@ -0,0 +1,48 @@
+package com.requillion.solutions.inventory.dto;
+
+import com.requillion.solutions.inventory.exception.BadInputException;
+import com.requillion.solutions.inventory.model.Item;
+import com.requillion.solutions.inventory.repository.ItemRepository;
+
+import java.util.UUID;
+
+// Position in a reference number ordered listing. Reference numbers are only unique within
+// a category, so the item id breaks ties; a bare number means "after every item with it".
+public record ItemCursor(int referenceNumber, UUID itemId) {
+
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+
+    public static final ItemCursor START = new ItemCursor(Integer.MIN_VALUE, new UUID(0, 0));
+
+    public static ItemCursor after(Item item) {
+        return new ItemCursor(item.getReferenceNumber(), item.getId());
+    }
+
+    public static ItemCursor after(ItemRepository.ItemListRow row) {
+        return new ItemCursor(row.getReferenceNumber(), row.getId());
+    }
+
+    // Accepts "<ref>" or "<ref>:<itemId>"; null or blank means from the start
+    public static ItemCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return START;
+        }
+        try {
+            int separator = value.indexOf(':');
+            if (separator < 0) {
+                return new ItemCursor(Integer.parseInt(value.trim()), MAX_ID);
+            }
+            return new ItemCursor(Integer.parseInt(value.substring(0, separator).trim()),
+                    UUID.fromString(value.substring(separator + 1).trim()));
+        } catch (IllegalArgumentException e) {
+            throw new BadInputException(
+                    "Invalid cursor",
+                    "Cursor: %s", value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return referenceNumber + ":" + itemId;
+    }
+}
@@ -0,0 +1,12 @@
+package com.requillion.solutions.inventory.dto;
+
+import java.util.List;
+
+// A page of a list endpoint. The body stays a plain array; the cursor for the next page,
+// if there is one, goes in the X-Next-Cursor header to be sent back as ?after=
+public record ItemListDTO(
+        List<ItemWithThumbnailDTO> items,
+        ItemCursor nextCursor
+) {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+}
@@ -1,5 +1,6 @@
 package com.requillion.solutions.inventory.dto;
 
+import com.requillion.solutions.inventory.model.ImageStatus;
 import com.requillion.solutions.inventory.model.Item;
 
 import java.time.Instant;
@@ -13,6 +14,7 @@ public record ItemResponseDTO(
         int referenceNumber,
         String description,
         boolean hasImage,
+        ImageStatus imageStatus,
         int claimCount,
         boolean isAssigned,
         String assignedToName,
@@ -32,7 +34,8 @@ public record ItemResponseDTO(
                 item.getCategory() != null ? item.getCategory().getName() : null,
                 item.getReferenceNumber(),
                 item.getDescription(),
-                item.getImage() != null && item.getImage().length > 0,
+                item.getHasImage(),
+                item.getImageStatus(),
                 claimCount,
                 isAssigned,
                 assignedToName,
@@ -1,6 +1,8 @@
 package com.requillion.solutions.inventory.dto;
 
+import com.requillion.solutions.inventory.model.ImageStatus;
 import com.requillion.solutions.inventory.model.Item;
+import com.requillion.solutions.inventory.repository.ItemRepository;
 
 import java.time.Instant;
 import java.util.Base64;
@@ -14,6 +16,9 @@ public record ItemWithThumbnailDTO(
         int referenceNumber,
         String description,
         String thumbnailBase64,
+        String thumbnailUrl,
+        String imagePlaceholder,
+        ImageStatus imageStatus,
         int claimCount,
         boolean isAssigned,
         String assignedToName,
@@ -24,30 +29,46 @@ public record ItemWithThumbnailDTO(
         Instant createdAt,
         Instant updatedAt
 ) {
-    public static ItemWithThumbnailDTO toDTO(Item item, int claimCount, boolean isAssigned,
-                                              String assignedToName, boolean currentUserClaimed,
-                                              boolean assignedToCurrentUser) {
+    // Listing rows carry their claim summary, aggregated by the listing query
+    public static ItemWithThumbnailDTO toDTO(ItemRepository.ItemListRow row, byte[] thumbnailData,
+                                              String thumbnailVersion) {
         String thumbnail = null;
-        if (item.getThumbnail() != null && item.getThumbnail().length > 0) {
-            thumbnail = Base64.getEncoder().encodeToString(item.getThumbnail());
+        if (thumbnailData != null && thumbnailData.length > 0) {
+            thumbnail = Base64.getEncoder().encodeToString(thumbnailData);
         }
         return new ItemWithThumbnailDTO(
-                item.getId(),
-                item.getInventory().getId(),
-                item.getCategory() != null ? item.getCategory().getId() : null,
-                item.getCategory() != null ? item.getCategory().getName() : null,
-                item.getReferenceNumber(),
-                item.getDescription(),
+                row.getId(),
+                row.getInventoryId(),
+                row.getCategoryId(),
+                row.getCategoryName(),
+                row.getReferenceNumber(),
+                row.getDescription(),
                 thumbnail,
-                claimCount,
-                isAssigned,
-                assignedToName,
-                currentUserClaimed,
-                assignedToCurrentUser,
-                item.getIsDeleted(),
-                item.getIsCollected(),
-                item.getCreatedAt(),
-                item.getUpdatedAt()
+                thumbnailUrl(row.getInventoryId(), row.getId(), thumbnailVersion),
+                row.getImagePlaceholder(),
+                ImageStatus.valueOf(row.getImageStatus()),
+                row.getClaimCount(),
+                row.getAssignedToName() != null,
+                row.getAssignedToName(),
+                row.getCurrentUserClaimed(),
+                row.getAssignedToCurrentUser(),
+                row.getIsDeleted(),
+                row.getIsCollected(),
+                row.getCreatedAt(),
+                row.getUpdatedAt()
         );
     }
+
+    // The thumbnail's content hash as ?v= makes the URL immutable, so browsers cache it for good
+    public static String thumbnailUrl(Item item, String thumbnailVersion) {
+        return thumbnailUrl(item.getInventory().getId(), item.getId(), thumbnailVersion);
+    }
+
+    public static String thumbnailUrl(UUID inventoryId, UUID itemId, String thumbnailVersion) {
+        if (thumbnailVersion == null) {
+            return null;
+        }
+        return String.format("/api/v1/inventories/%s/items/%s/thumbnail?v=%s",
+                inventoryId, itemId, thumbnailVersion);
+    }
 }
@@ -0,0 +1,25 @@
+package com.requillion.solutions.inventory.dto;
+
+import com.requillion.solutions.inventory.exception.BadInputException;
+
+// How list responses deliver thumbnails: base64 in the JSON, a versioned URL, or not at all
+public enum ThumbnailMode {
+    INLINE,
+    URL,
+    NONE;
+
+    // From the thumbnails=inline|url|none query parameter; inline when absent
+    public static ThumbnailMode fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return INLINE;
+        }
+        for (ThumbnailMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        throw new BadInputException(
+                "Thumbnails must be inline, url or none",
+                "Unknown thumbnail mode: %s", value);
+    }
+}
@@ -0,0 +1,32 @@
+package com.requillion.solutions.inventory.dto;
+
+import com.requillion.solutions.inventory.service.ThumbnailSpriteService;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ThumbnailSpriteDTO(
+        String version,
+        int tileSize,
+        int columns,
+        int width,
+        int height,
+        List<TileDTO> tiles,
+        String nextCursor
+) {
+    public record TileDTO(UUID itemId, int x, int y) {}
+
+    public static ThumbnailSpriteDTO toDTO(ThumbnailSpriteService.Sprite sprite) {
+        return new ThumbnailSpriteDTO(
+                sprite.version(),
+                sprite.tileSize(),
+                sprite.columns(),
+                sprite.width(),
+                sprite.height(),
+                sprite.tiles().stream()
+                        .map(tile -> new TileDTO(tile.itemId(), tile.x(), tile.y()))
+                        .toList(),
+                sprite.next() != null ? sprite.next().toString() : null
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package com.requillion.solutions.inventory.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class TooManyRequestsException extends ApiException {
+
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(Duration retryAfter, String userMessage, String systemMessageFormat,
+                                    Object... args) {
+        super(userMessage, systemMessageFormat, args);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,39 @@
+package com.requillion.solutions.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "blob_candidates", schema = "inventory")
+@Data
+@NoArgsConstructor
+public class BlobCandidate {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "touched_at", nullable = false)
+    private Instant touchedAt;
+
+    @Override
+    public String toString() {
+        return String.format("[%s] touched %s", contentHash, touchedAt);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (other == null || getClass() != other.getClass()) return false;
+        if (contentHash == null) return false;
+        return contentHash.equals(((BlobCandidate) other).contentHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return contentHash == null ? 0 : contentHash.hashCode();
+    }
+}
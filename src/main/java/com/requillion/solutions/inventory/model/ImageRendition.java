@@ -0,0 +1,10 @@
+package com.requillion.solutions.inventory.model;
+
+public enum ImageRendition {
+    ORIGINAL,
+    MASTER,
+    IMAGE,
+    THUMBNAIL,
+    SCALED,
+    SCALED_THUMBNAIL
+}
@@ -0,0 +1,76 @@
+package com.requillion.solutions.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "image_reprocess_jobs", schema = "inventory")
+@Data
+@NoArgsConstructor
+public class ImageReprocessJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ImageReprocessStatus status = ImageReprocessStatus.RUNNING;
+
+    // Every item with a smaller id has been handled; null before the first chunk
+    @Column(name = "last_item_id")
+    private UUID lastItemId;
+
+    @Column(name = "total_items", nullable = false)
+    private Integer totalItems = 0;
+
+    @Column(name = "processed_items", nullable = false)
+    private Integer processedItems = 0;
+
+    @Column(name = "failed_items", nullable = false)
+    private Integer failedItems = 0;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "lease_owner", length = 64)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Override
+    public String toString() {
+        return String.format("[%s] %s %d/%d (%d failed)", id, status, processedItems, totalItems, failedItems);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (other == null || getClass() != other.getClass()) return false;
+        if (id == null) return false;
+        return id.equals(((ImageReprocessJob) other).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id == null ? 0 : id.hashCode();
+    }
+}
@@ -0,0 +1,7 @@
+package com.requillion.solutions.inventory.model;
+
+public enum ImageReprocessStatus {
+    RUNNING,
+    COMPLETED,
+    CANCELLED
+}
@@ -0,0 +1,8 @@
+package com.requillion.solutions.inventory.model;
+
+public enum ImageStatus {
+    NONE,
+    PROCESSING,
+    READY,
+    FAILED
+}
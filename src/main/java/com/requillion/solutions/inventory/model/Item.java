@@ -33,11 +33,16 @@ public class Item {
     @Column(nullable = false)
     private String description;
 
-    @Column(columnDefinition = "BYTEA")
-    private byte[] image;
+    @Column(name = "has_image", nullable = false)
+    private Boolean hasImage = false;
 
-    @Column(columnDefinition = "BYTEA")
-    private byte[] thumbnail;
+    // BlurHash of the thumbnail so list views can paint a placeholder before any image loads
+    @Column(name = "image_placeholder", length = 64)
+    private String imagePlaceholder;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "image_status", nullable = false, length = 20)
+    private ImageStatus imageStatus = ImageStatus.NONE;
 
     @Column(name = "is_deleted", nullable = false)
     private Boolean isDeleted = false;
@@ -0,0 +1,74 @@
+package com.requillion.solutions.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "item_images", schema = "inventory")
+@Data
+@NoArgsConstructor
+public class ItemImage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item item;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ImageRendition rendition;
+
+    // Ladder width for scaled renditions, 0 for the fixed ones
+    @Column(nullable = false)
+    private Integer width = 0;
+
+    // Reference number drawn into badged renditions; null for clean ones and for
+    // legacy images whose badge was burned in before masters were kept
+    @Column(name = "reference_number")
+    private Integer referenceNumber;
+
+    // Hash of the upload a MASTER or THUMBNAIL was built from, so repeat uploads can reuse them
+    @Column(name = "source_hash", length = 64)
+    private String sourceHash;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Override
+    public String toString() {
+        return String.format("[%s] %s %s (%d bytes)", id, rendition, contentHash, sizeBytes);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (other == null || getClass() != other.getClass()) return false;
+        if (id == null) return false;
+        return id.equals(((ItemImage) other).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id == null ? 0 : id.hashCode();
+    }
+}
@@ -0,0 +1,48 @@
+package com.requillion.solutions.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "reference_counters", schema = "inventory")
+@Data
+@NoArgsConstructor
+public class ReferenceCounter {
+
+    // Category id, or inventory id for items without a category
+    @Id
+    @Column(name = "scope_id")
+    private UUID scopeId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inventory_id", nullable = false)
+    private Inventory inventory;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
+    private Category category;
+
+    @Column(name = "last_value", nullable = false)
+    private Integer lastValue = 0;
+
+    @Override
+    public String toString() {
+        return String.format("[%s] %d", scopeId, lastValue);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (other == null || getClass() != other.getClass()) return false;
+        if (scopeId == null) return false;
+        return scopeId.equals(((ReferenceCounter) other).scopeId);
+    }
+
+    @Override
+    public int hashCode() {
+        return scopeId == null ? 0 : scopeId.hashCode();
+    }
+}
@@ -0,0 +1,47 @@
+package com.requillion.solutions.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "blobs", schema = "inventory")
+@Data
+@NoArgsConstructor
+public class StoredBlob {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, columnDefinition = "BYTEA")
+    private byte[] data;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Override
+    public String toString() {
+        return String.format("[%s] %d bytes", contentHash, sizeBytes);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (other == null || getClass() != other.getClass()) return false;
+        if (contentHash == null) return false;
+        return contentHash.equals(((StoredBlob) other).contentHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return contentHash == null ? 0 : contentHash.hashCode();
+    }
+}
@@ -0,0 +1,38 @@
+package com.requillion.solutions.inventory.repository;
+
+import com.requillion.solutions.inventory.model.BlobCandidate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BlobCandidateRepository extends JpaRepository<BlobCandidate, String> {
+
+    // Waits for whoever holds the row, so once this returns a sweep has either finished
+    // deleting the blob or will see the new timestamp
+    @Modifying
+    @Query(value = "INSERT INTO inventory.blob_candidates (content_hash, touched_at) " +
+                   "VALUES (:contentHash, clock_timestamp()) " +
+                   "ON CONFLICT (content_hash) DO UPDATE SET touched_at = EXCLUDED.touched_at",
+           nativeQuery = true)
+    void touch(@Param("contentHash") String contentHash);
+
+    @Query(value = "SELECT content_hash FROM inventory.blob_candidates " +
+                   "WHERE touched_at < :cutoff ORDER BY touched_at LIMIT :limit",
+           nativeQuery = true)
+    List<String> findExpired(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    // Empty when the candidate was touched since it was listed, or is held by an open
+    // transaction or another node's sweep
+    @Query(value = "SELECT content_hash FROM inventory.blob_candidates " +
+                   "WHERE content_hash = :contentHash AND touched_at < :cutoff " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<String> lockIfExpired(@Param("contentHash") String contentHash, @Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,32 @@
+package com.requillion.solutions.inventory.repository;
+
+import com.requillion.solutions.inventory.model.ImageReprocessJob;
+import com.requillion.solutions.inventory.model.ImageReprocessStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ImageReprocessJobRepository extends JpaRepository<ImageReprocessJob, UUID> {
+
+    Optional<ImageReprocessJob> findFirstByStatus(ImageReprocessStatus status);
+
+    Optional<ImageReprocessJob> findFirstByOrderByCreatedAtDesc();
+
+    // Takes (or renews) the lease unless another node holds one that has not expired
+    @Modifying
+    @Query(value = "UPDATE inventory.image_reprocess_jobs " +
+                   "SET lease_owner = :owner, lease_expires_at = :expiresAt " +
+                   "WHERE id = :id AND status = 'RUNNING' " +
+                   "AND (lease_owner IS NULL OR lease_owner = :owner OR lease_expires_at < now())",
+           nativeQuery = true)
+    int claimLease(@Param("id") UUID id,
+                   @Param("owner") String owner,
+                   @Param("expiresAt") Instant expiresAt);
+}
@@ -2,9 +2,8 @@ package com.requillion.solutions.inventory.repository;
 
 import com.requillion.solutions.inventory.model.Inventory;
 import com.requillion.solutions.inventory.model.User;
-import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -26,7 +25,24 @@ public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
            "(SELECT m FROM InventoryMember m WHERE m.inventory = i AND m.user = :user AND m.status = 'ACTIVE')")
     List<Inventory> findAccessibleByUser(@Param("user") User user);
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT i FROM Inventory i WHERE i.id = :id")
-    Optional<Inventory> findByIdWithLock(@Param("id") UUID id);
+    @Modifying
+    @Query(value = "UPDATE inventory.inventories SET version = version + 1 WHERE id = :inventoryId",
+           nativeQuery = true)
+    void incrementVersion(@Param("inventoryId") UUID inventoryId);
+
+    // The inventory's version and the user's access to it (OWNER, or the role of an active
+    // membership; null when they have none) in one primary key lookup
+    @Query(value = "SELECT i.version AS version, " +
+                   "CASE WHEN i.owner_id = :userId THEN 'OWNER' " +
+                   "WHEN m.status = 'ACTIVE' THEN m.role END AS access " +
+                   "FROM inventory.inventories i " +
+                   "LEFT JOIN inventory.inventory_members m ON m.inventory_id = i.id AND m.user_id = :userId " +
+                   "WHERE i.id = :inventoryId",
+           nativeQuery = true)
+    Optional<InventoryVersion> findVersion(@Param("inventoryId") UUID inventoryId, @Param("userId") UUID userId);
+
+    interface InventoryVersion {
+        long getVersion();
+        String getAccess();
+    }
 }
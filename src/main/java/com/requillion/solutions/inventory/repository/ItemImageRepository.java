@@ -0,0 +1,84 @@
+package com.requillion.solutions.inventory.repository;
+
+import com.requillion.solutions.inventory.model.ImageRendition;
+import com.requillion.solutions.inventory.model.Item;
+import com.requillion.solutions.inventory.model.ItemImage;
+import com.requillion.solutions.inventory.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ItemImageRepository extends JpaRepository<ItemImage, UUID> {
+
+    Optional<ItemImage> findByItemAndRendition(Item item, ImageRendition rendition);
+
+    Optional<ItemImage> findByItemAndRenditionAndWidth(Item item, ImageRendition rendition, Integer width);
+
+    // Validator lookup for conditional GETs: checks visibility and reads the rendition row in one query.
+    // A badge drawn with an outdated reference number does not count as the current version.
+    @Query("SELECT ii FROM ItemImage ii JOIN ii.item i JOIN i.inventory inv " +
+           "WHERE i.id = :itemId AND inv.id = :inventoryId AND i.isDeleted = false " +
+           "AND ii.rendition = :rendition AND ii.width = :width " +
+           "AND (ii.referenceNumber IS NULL OR ii.referenceNumber = i.referenceNumber) " +
+           "AND (inv.owner = :user OR EXISTS " +
+           "(SELECT m FROM InventoryMember m WHERE m.inventory = inv AND m.user = :user AND m.status = 'ACTIVE'))")
+    Optional<ItemImage> findVisibleImage(@Param("user") User user,
+                                         @Param("inventoryId") UUID inventoryId,
+                                         @Param("itemId") UUID itemId,
+                                         @Param("rendition") ImageRendition rendition,
+                                         @Param("width") int width);
+
+    List<ItemImage> findByItemAndRenditionIn(Item item, Collection<ImageRendition> renditions);
+
+    // Concurrent first requests for the same width and badge generate identical bytes, so the
+    // loser just skips; a row drawn with a different reference number is replaced
+    @Modifying
+    @Query(value = "INSERT INTO inventory.item_images " +
+                   "(item_id, rendition, width, content_hash, size_bytes, reference_number) " +
+                   "VALUES (:itemId, :rendition, :width, :contentHash, :sizeBytes, " +
+                   "CAST(:referenceNumber AS integer)) " +
+                   "ON CONFLICT (item_id, rendition, width) DO UPDATE SET " +
+                   "content_hash = EXCLUDED.content_hash, size_bytes = EXCLUDED.size_bytes, " +
+                   "reference_number = EXCLUDED.reference_number, updated_at = now() " +
+                   "WHERE inventory.item_images.reference_number IS DISTINCT FROM EXCLUDED.reference_number",
+           nativeQuery = true)
+    int upsertRendition(@Param("itemId") UUID itemId,
+                        @Param("rendition") String rendition,
+                        @Param("width") int width,
+                        @Param("contentHash") String contentHash,
+                        @Param("sizeBytes") long sizeBytes,
+                        @Param("referenceNumber") Integer referenceNumber);
+
+    @Query("SELECT ii FROM ItemImage ii WHERE ii.item.id IN :itemIds AND ii.rendition = :rendition")
+    List<ItemImage> findByItemIdInAndRendition(@Param("itemIds") Collection<UUID> itemIds,
+                                               @Param("rendition") ImageRendition rendition);
+
+    boolean existsByContentHash(String contentHash);
+
+    Optional<ItemImage> findFirstBySourceHashAndRendition(String sourceHash, ImageRendition rendition);
+
+    // Bytes the renditions would take stored separately, and what they take with identical
+    // content stored once
+    @Query(value = "SELECT COUNT(*) AS renditions, COALESCE(SUM(size_bytes), 0) AS logicalBytes, " +
+                   "(SELECT COUNT(*) FROM (SELECT DISTINCT content_hash FROM inventory.item_images) d) AS blobs, " +
+                   "(SELECT COALESCE(SUM(size_bytes), 0) FROM " +
+                   "(SELECT DISTINCT ON (content_hash) size_bytes FROM inventory.item_images) d) AS physicalBytes " +
+                   "FROM inventory.item_images",
+           nativeQuery = true)
+    StorageUsage getStorageUsage();
+
+    interface StorageUsage {
+        long getRenditions();
+        long getLogicalBytes();
+        long getBlobs();
+        long getPhysicalBytes();
+    }
+}
@@ -1,10 +1,16 @@
 package com.requillion.solutions.inventory.repository;
 
 import com.requillion.solutions.inventory.model.Category;
+import com.requillion.solutions.inventory.model.ImageStatus;
 import com.requillion.solutions.inventory.model.Inventory;
 import com.requillion.solutions.inventory.model.Item;
+import com.requillion.solutions.inventory.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,36 +18,243 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, UUID> {
 
-    List<Item> findByInventoryAndIsDeletedFalseOrderByReferenceNumberAsc(Inventory inventory);
-
     List<Item> findByInventoryAndIsDeletedFalseAndIsCollectedFalseOrderByReferenceNumberAsc(Inventory inventory);
 
     Optional<Item> findByIdAndIsDeletedFalse(UUID id);
 
-    Optional<Item> findByInventoryAndIdAndIsDeletedFalse(Inventory inventory, UUID id);
+    List<Item> findTop100ByImageStatusAndUpdatedAtBeforeOrderByUpdatedAtAsc(ImageStatus imageStatus, Instant before);
 
-    @Query("SELECT COALESCE(MAX(i.referenceNumber), 0) FROM Item i WHERE i.inventory = :inventory")
-    Integer findMaxReferenceNumber(@Param("inventory") Inventory inventory);
+    Optional<Item> findByInventoryAndIdAndIsDeletedFalse(Inventory inventory, UUID id);
 
     long countByInventoryAndIsDeletedFalse(Inventory inventory);
 
-    List<Item> findByCategoryAndIsDeletedFalseOrderByReferenceNumberAsc(Category category);
-
     List<Item> findByCategoryAndIsDeletedFalseAndIsCollectedFalseOrderByReferenceNumberAsc(Category category);
 
-    List<Item> findByCategoryOrderByReferenceNumberAsc(Category category);
+    // Keyset pages in (reference number, id) order, starting after the given position. The
+    // redundant >= gives the planner an index bound the OR alone does not
+    @Query("SELECT i FROM Item i WHERE i.inventory = :inventory AND i.isDeleted = false " +
+            "AND i.referenceNumber >= :referenceNumber " +
+            "AND (i.referenceNumber > :referenceNumber OR (i.referenceNumber = :referenceNumber AND i.id > :itemId)) " +
+            "ORDER BY i.referenceNumber, i.id")
+    List<Item> findPageByInventory(@Param("inventory") Inventory inventory,
+                                   @Param("referenceNumber") int referenceNumber,
+                                   @Param("itemId") UUID itemId,
+                                   Limit limit);
+
+    @Query("SELECT i FROM Item i WHERE i.category = :category " +
+            "AND i.referenceNumber >= :referenceNumber " +
+            "AND (i.referenceNumber > :referenceNumber OR (i.referenceNumber = :referenceNumber AND i.id > :itemId)) " +
+            "ORDER BY i.referenceNumber, i.id")
+    List<Item> findPageByCategory(@Param("category") Category category,
+                                  @Param("referenceNumber") int referenceNumber,
+                                  @Param("itemId") UUID itemId,
+                                  Limit limit);
+
+    // Pages as a viewer or claimant sees them: no deleted items, nothing from hidden categories,
+    // and collected items only when assigned to the user
+    @Query("SELECT i FROM Item i LEFT JOIN i.category c " +
+            "WHERE i.inventory = :inventory AND i.isDeleted = false " +
+            "AND (c IS NULL OR c.hidden = false) " +
+            "AND (i.isCollected = false OR EXISTS (SELECT 1 FROM ItemClaim ic WHERE ic.item = i " +
+            "AND ic.user = :user AND ic.status = com.requillion.solutions.inventory.model.ClaimStatus.ASSIGNED)) " +
+            "AND i.referenceNumber >= :referenceNumber " +
+            "AND (i.referenceNumber > :referenceNumber OR (i.referenceNumber = :referenceNumber AND i.id > :itemId)) " +
+            "ORDER BY i.referenceNumber, i.id")
+    List<Item> findVisiblePageByInventory(@Param("inventory") Inventory inventory,
+                                          @Param("user") User user,
+                                          @Param("referenceNumber") int referenceNumber,
+                                          @Param("itemId") UUID itemId,
+                                          Limit limit);
+
+    @Query("SELECT i FROM Item i WHERE i.category = :category AND i.isDeleted = false " +
+            "AND (i.isCollected = false OR EXISTS (SELECT 1 FROM ItemClaim ic WHERE ic.item = i " +
+            "AND ic.user = :user AND ic.status = com.requillion.solutions.inventory.model.ClaimStatus.ASSIGNED)) " +
+            "AND i.referenceNumber >= :referenceNumber " +
+            "AND (i.referenceNumber > :referenceNumber OR (i.referenceNumber = :referenceNumber AND i.id > :itemId)) " +
+            "ORDER BY i.referenceNumber, i.id")
+    List<Item> findVisiblePageByCategory(@Param("category") Category category,
+                                         @Param("user") User user,
+                                         @Param("referenceNumber") int referenceNumber,
+                                         @Param("itemId") UUID itemId,
+                                         Limit limit);
+
+    // List rows with their claim summary, aggregated per item in the same statement
+    String LIST_ROW_SELECT = "SELECT i.id AS id, i.inventory_id AS inventoryId, i.category_id AS categoryId, " +
+            "c.name AS categoryName, i.reference_number AS referenceNumber, i.description AS description, " +
+            "i.has_image AS hasImage, i.image_placeholder AS imagePlaceholder, i.image_status AS imageStatus, " +
+            "i.is_deleted AS isDeleted, i.is_collected AS isCollected, " +
+            "i.created_at AS createdAt, i.updated_at AS updatedAt, " +
+            "COALESCE(cl.claim_count, 0) AS claimCount, cl.assigned_to_name AS assignedToName, " +
+            "COALESCE(cl.current_user_claimed, FALSE) AS currentUserClaimed, " +
+            "COALESCE(cl.assigned_to_current_user, FALSE) AS assignedToCurrentUser " +
+            "FROM inventory.items i " +
+            "LEFT JOIN inventory.categories c ON c.id = i.category_id " +
+            "LEFT JOIN LATERAL (" +
+            "SELECT COUNT(*) AS claim_count, " +
+            "MAX(u.first_name || ' ' || u.last_name) FILTER (WHERE ic.status = 'ASSIGNED') AS assigned_to_name, " +
+            "BOOL_OR(ic.user_id = :userId) AS current_user_claimed, " +
+            "BOOL_OR(ic.user_id = :userId AND ic.status = 'ASSIGNED') AS assigned_to_current_user " +
+            "FROM inventory.item_claims ic JOIN inventory.users u ON u.id = ic.user_id " +
+            "WHERE ic.item_id = i.id) cl ON TRUE ";
+
+    String VISIBLE_TO_USER = "i.is_deleted = FALSE AND (c.id IS NULL OR c.hidden = FALSE) " +
+            "AND (i.is_collected = FALSE OR EXISTS (SELECT 1 FROM inventory.item_claims mine " +
+            "WHERE mine.item_id = i.id AND mine.user_id = :userId AND mine.status = 'ASSIGNED'))";
+
+    String LIST_ROW_VISIBLE_TO_USER = "AND " + VISIBLE_TO_USER + " ";
+
+    // An item's list entry changes with the item, its category or any of its claims. Each
+    // source is read from its own (..., updated_at) index and the ids are merged, rather than
+    // testing all three per item
+    String CHANGED_SINCE = "AND i.id IN (" +
+            "SELECT ci.id FROM inventory.items ci " +
+            "WHERE ci.inventory_id = :inventoryId AND ci.updated_at > :since " +
+            "UNION " +
+            "SELECT ci.id FROM inventory.categories cc JOIN inventory.items ci ON ci.category_id = cc.id " +
+            "WHERE cc.inventory_id = :inventoryId AND cc.updated_at > :since " +
+            "UNION " +
+            "SELECT ci.id FROM inventory.item_claims ch JOIN inventory.items ci ON ci.id = ch.item_id " +
+            "WHERE ch.updated_at > :since AND ci.inventory_id = :inventoryId) ";
+
+    // A row comparison, so the cursor is a single bound on the (reference_number, id) indexes
+    String LIST_ROW_AFTER_CURSOR = "AND (i.reference_number, i.id) > (:referenceNumber, :itemId) " +
+            "ORDER BY i.reference_number, i.id";
+
+    @Query(value = LIST_ROW_SELECT +
+                   "WHERE i.inventory_id = :inventoryId AND i.is_deleted = FALSE " +
+                   LIST_ROW_AFTER_CURSOR,
+           nativeQuery = true)
+    List<ItemListRow> findListRowsByInventory(@Param("userId") UUID userId,
+                                              @Param("inventoryId") UUID inventoryId,
+                                              @Param("referenceNumber") int referenceNumber,
+                                              @Param("itemId") UUID itemId,
+                                              Limit limit);
+
+    @Query(value = LIST_ROW_SELECT +
+                   "WHERE i.inventory_id = :inventoryId " + LIST_ROW_VISIBLE_TO_USER +
+                   LIST_ROW_AFTER_CURSOR,
+           nativeQuery = true)
+    List<ItemListRow> findVisibleListRowsByInventory(@Param("userId") UUID userId,
+                                                     @Param("inventoryId") UUID inventoryId,
+                                                     @Param("referenceNumber") int referenceNumber,
+                                                     @Param("itemId") UUID itemId,
+                                                     Limit limit);
+
+    // Editors see a category's deleted items too
+    @Query(value = LIST_ROW_SELECT +
+                   "WHERE i.category_id = :categoryId " +
+                   LIST_ROW_AFTER_CURSOR,
+           nativeQuery = true)
+    List<ItemListRow> findListRowsByCategory(@Param("userId") UUID userId,
+                                             @Param("categoryId") UUID categoryId,
+                                             @Param("referenceNumber") int referenceNumber,
+                                             @Param("itemId") UUID itemId,
+                                             Limit limit);
+
+    @Query(value = LIST_ROW_SELECT +
+                   "WHERE i.category_id = :categoryId " + LIST_ROW_VISIBLE_TO_USER +
+                   LIST_ROW_AFTER_CURSOR,
+           nativeQuery = true)
+    List<ItemListRow> findVisibleListRowsByCategory(@Param("userId") UUID userId,
+                                                    @Param("categoryId") UUID categoryId,
+                                                    @Param("referenceNumber") int referenceNumber,
+                                                    @Param("itemId") UUID itemId,
+                                                    Limit limit);
+
+    // Delta sync: list entries changed since a watermark, and the ids that have left the listing
+    @Query(value = LIST_ROW_SELECT +
+                   "WHERE i.inventory_id = :inventoryId AND i.is_deleted = FALSE " + CHANGED_SINCE +
+                   "ORDER BY i.reference_number, i.id",
+           nativeQuery = true)
+    List<ItemListRow> findListRowsChangedSince(@Param("userId") UUID userId,
+                                               @Param("inventoryId") UUID inventoryId,
+                                               @Param("since") Instant since);
+
+    @Query(value = LIST_ROW_SELECT +
+                   "WHERE i.inventory_id = :inventoryId " + LIST_ROW_VISIBLE_TO_USER + CHANGED_SINCE +
+                   "ORDER BY i.reference_number, i.id",
+           nativeQuery = true)
+    List<ItemListRow> findVisibleListRowsChangedSince(@Param("userId") UUID userId,
+                                                      @Param("inventoryId") UUID inventoryId,
+                                                      @Param("since") Instant since);
+
+    @Query(value = "SELECT i.id FROM inventory.items i " +
+                   "WHERE i.inventory_id = :inventoryId AND i.is_deleted = TRUE AND i.updated_at > :since",
+           nativeQuery = true)
+    List<UUID> findIdsDeletedSince(@Param("inventoryId") UUID inventoryId, @Param("since") Instant since);
+
+    // Changed items the user can no longer see; may include items they never saw
+    @Query(value = "SELECT i.id FROM inventory.items i " +
+                   "LEFT JOIN inventory.categories c ON c.id = i.category_id " +
+                   "WHERE i.inventory_id = :inventoryId " + CHANGED_SINCE +
+                   "AND NOT (" + VISIBLE_TO_USER + ")",
+           nativeQuery = true)
+    List<UUID> findIdsHiddenFromUserSince(@Param("userId") UUID userId,
+                                          @Param("inventoryId") UUID inventoryId,
+                                          @Param("since") Instant since);
+
+    // Whole listings for streaming exports, read forward-only a fetch at a time
+    @Query(value = LIST_ROW_SELECT +
+                   "WHERE i.inventory_id = :inventoryId AND i.is_deleted = FALSE " +
+                   "ORDER BY i.reference_number, i.id",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "250"))
+    Stream<ItemListRow> streamListRowsByInventory(@Param("userId") UUID userId,
+                                                  @Param("inventoryId") UUID inventoryId);
+
+    @Query(value = LIST_ROW_SELECT +
+                   "WHERE i.inventory_id = :inventoryId " + LIST_ROW_VISIBLE_TO_USER +
+                   "ORDER BY i.reference_number, i.id",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "250"))
+    Stream<ItemListRow> streamVisibleListRowsByInventory(@Param("userId") UUID userId,
+                                                         @Param("inventoryId") UUID inventoryId);
+
+    // Items the user has a claim on; deleted items drop out, as they did from the claim-based query
+    @Query(value = LIST_ROW_SELECT +
+                   "WHERE i.inventory_id = :inventoryId AND i.is_deleted = FALSE " +
+                   "AND EXISTS (SELECT 1 FROM inventory.item_claims mine " +
+                   "WHERE mine.item_id = i.id AND mine.user_id = :userId) " +
+                   "ORDER BY i.reference_number, i.id",
+           nativeQuery = true)
+    List<ItemListRow> findClaimedListRows(@Param("userId") UUID userId,
+                                          @Param("inventoryId") UUID inventoryId);
+
+    interface ItemListRow {
+        UUID getId();
+        UUID getInventoryId();
+        UUID getCategoryId();
+        String getCategoryName();
+        int getReferenceNumber();
+        String getDescription();
+        boolean getHasImage();
+        String getImagePlaceholder();
+        String getImageStatus();
+        boolean getIsDeleted();
+        boolean getIsCollected();
+        Instant getCreatedAt();
+        Instant getUpdatedAt();
+        int getClaimCount();
+        String getAssignedToName();
+        boolean getCurrentUserClaimed();
+        boolean getAssignedToCurrentUser();
+    }
+
+    // Keyset chunks in id order for background jobs; pass the nil UUID to start from the beginning
+    @Query("SELECT i.id FROM Item i WHERE i.hasImage = true AND i.id > :afterId ORDER BY i.id")
+    List<UUID> findIdsWithImageAfter(@Param("afterId") UUID afterId, Limit limit);
+
+    long countByHasImageTrue();
 
     Optional<Item> findByInventoryAndId(Inventory inventory, UUID id);
 
     long countByCategoryAndIsDeletedFalse(Category category);
 
-    @Query("SELECT COALESCE(MAX(i.referenceNumber), 0) FROM Item i WHERE i.category = :category")
-    Integer findMaxReferenceNumberByCategory(@Param("category") Category category);
-
     @Query("SELECT i.category.id, " +
             "SUM(CASE WHEN i.createdAt >= :since THEN 1 ELSE 0 END), " +
             "SUM(CASE WHEN i.createdAt < :since AND i.updatedAt >= :since THEN 1 ELSE 0 END) " +
@@ -0,0 +1,42 @@
+package com.requillion.solutions.inventory.repository;
+
+import com.requillion.solutions.inventory.model.ReferenceCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface ReferenceCounterRepository extends JpaRepository<ReferenceCounter, UUID> {
+
+    // Advances the counter by count and returns the new last value; the row lock is held
+    // until the calling transaction ends, so only creations in the same scope wait
+    @Query(value = "INSERT INTO inventory.reference_counters (scope_id, inventory_id, category_id, last_value) " +
+                   "VALUES (:scopeId, :inventoryId, CAST(:categoryId AS uuid), :count) " +
+                   "ON CONFLICT (scope_id) DO UPDATE " +
+                   "SET last_value = inventory.reference_counters.last_value + EXCLUDED.last_value " +
+                   "RETURNING last_value",
+           nativeQuery = true)
+    int allocate(@Param("scopeId") UUID scopeId,
+                 @Param("inventoryId") UUID inventoryId,
+                 @Param("categoryId") UUID categoryId,
+                 @Param("count") int count);
+
+    // Uncategorised items number after every item in the inventory, as they did before the
+    // counters: the inventory row advances from the highest counter of any of its scopes.
+    // The SET runs once the row lock is held, so concurrent uncategorised creations never
+    // share a number; a categorised creation committing at the same moment still can
+    @Query(value = "INSERT INTO inventory.reference_counters (scope_id, inventory_id, category_id, last_value) " +
+                   "VALUES (:inventoryId, :inventoryId, NULL, :count + (SELECT COALESCE(MAX(r.last_value), 0) " +
+                   "FROM inventory.reference_counters r WHERE r.inventory_id = :inventoryId)) " +
+                   "ON CONFLICT (scope_id) DO UPDATE " +
+                   "SET last_value = :count + GREATEST(inventory.reference_counters.last_value, " +
+                   "(SELECT COALESCE(MAX(r.last_value), 0) FROM inventory.reference_counters r " +
+                   "WHERE r.inventory_id = :inventoryId AND r.category_id IS NOT NULL)) " +
+                   "RETURNING last_value",
+           nativeQuery = true)
+    int allocateUncategorised(@Param("inventoryId") UUID inventoryId,
+                              @Param("count") int count);
+}
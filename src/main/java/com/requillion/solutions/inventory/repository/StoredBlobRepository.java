@@ -0,0 +1,34 @@
+package com.requillion.solutions.inventory.repository;
+
+import com.requillion.solutions.inventory.model.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO inventory.blobs (content_hash, data, size_bytes) " +
+                   "VALUES (:contentHash, :data, :sizeBytes) ON CONFLICT (content_hash) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("contentHash") String contentHash,
+                       @Param("data") byte[] data,
+                       @Param("sizeBytes") long sizeBytes);
+
+    @Query("SELECT b.sizeBytes FROM StoredBlob b WHERE b.contentHash = :contentHash")
+    Optional<Long> findSizeBytes(@Param("contentHash") String contentHash);
+
+    // Reads a slice without loading the whole value; offsets are 1-based as in SQL and
+    // fit in an int because bytea values are limited to 1GB
+    @Query(value = "SELECT substring(data FROM :from FOR :length) FROM inventory.blobs " +
+                   "WHERE content_hash = :contentHash",
+           nativeQuery = true)
+    byte[] readChunk(@Param("contentHash") String contentHash,
+                     @Param("from") int from,
+                     @Param("length") int length);
+}
@@ -0,0 +1,109 @@
+package com.requillion.solutions.inventory.service;
+
+import com.requillion.solutions.inventory.repository.BlobCandidateRepository;
+import com.requillion.solutions.inventory.repository.ItemImageRepository;
+import com.requillion.solutions.inventory.storage.BlobStore;
+import com.requillion.solutions.inventory.util.LoggerUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Deletes blobs nothing references any more. Blobs are shared by content, so releasing one
+ * never deletes it on the spot: the hash is touched as a candidate, and a periodic sweep
+ * deletes it once it has gone untouched for the grace period and no item_images row points
+ * at it. Code about to point a row at an existing blob touches it first; the candidate row
+ * stays locked until that transaction ends and its timestamp keeps later sweeps off it for
+ * the grace period. Each candidate is collected in its own short transaction, so the lock is
+ * held for one blob deletion at most.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BlobCollectorService {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final BlobCandidateRepository blobCandidateRepository;
+    private final ItemImageRepository itemImageRepository;
+    private final BlobStore blobStore;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.blob-store.gc.grace-period:PT1H}")
+    private Duration gracePeriod;
+
+    private enum Swept { DELETED, KEPT, SKIPPED }
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Joins the caller's transaction, so it needs no connection of its own. A touch that rolls
+    // back goes with whatever change it was protecting
+    @Transactional
+    public void touch(@NonNull String contentHash) {
+        blobCandidateRepository.touch(contentHash);
+    }
+
+    @Scheduled(fixedDelayString = "${app.blob-store.gc.sweep-interval:PT10M}")
+    public void sweep() {
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        int deleted = 0;
+        List<String> expired;
+        int handled;
+        do {
+            expired = blobCandidateRepository.findExpired(cutoff, BATCH_SIZE);
+            handled = 0;
+            for (String contentHash : expired) {
+                Swept swept = transactionTemplate.execute(status -> collect(contentHash, cutoff));
+                if (swept != Swept.SKIPPED) {
+                    handled++;
+                }
+                if (swept == Swept.DELETED) {
+                    deleted++;
+                }
+            }
+            // Candidates held by open transactions are left for the next run
+        } while (expired.size() == BATCH_SIZE && handled > 0);
+        if (deleted > 0) {
+            LoggerUtil.info(log, "Deleted %d unreferenced blobs", deleted);
+        }
+    }
+
+    // The candidate row stays locked until the blob is gone, so a touch racing the sweep waits
+    // and then sees the blob missing; one touched since it was listed is no longer expired
+    private Swept collect(String contentHash, Instant cutoff) {
+        if (blobCandidateRepository.lockIfExpired(contentHash, cutoff).isEmpty()) {
+            return Swept.SKIPPED;
+        }
+        if (itemImageRepository.existsByContentHash(contentHash)) {
+            blobCandidateRepository.deleteById(contentHash);
+            return Swept.KEPT;
+        }
+        try {
+            blobStore.delete(contentHash);
+            blobCandidateRepository.deleteById(contentHash);
+            return Swept.DELETED;
+        } catch (IOException e) {
+            // Try again after another grace period
+            blobCandidateRepository.touch(contentHash);
+            LoggerUtil.warn(log, "Failed to delete blob %s: %s", contentHash, e.getMessage());
+            return Swept.KEPT;
+        }
+    }
+}
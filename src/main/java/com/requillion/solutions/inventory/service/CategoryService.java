@@ -36,6 +36,7 @@ public class CategoryService {
     private final InventoryRepository inventoryRepository;
     private final ItemRepository itemRepository;
     private final InventoryService inventoryService;
+    private final InventoryVersionService inventoryVersionService;
 
     public List<CategoryWithItemCount> getCategories(@NonNull User user, @NonNull UUID inventoryId) {
         Inventory inventory = getInventoryWithAccess(user, inventoryId);
@@ -89,6 +90,7 @@ public class CategoryService {
 
         category = categoryRepository.save(category);
         LoggerUtil.info(log, "Created category %s in inventory %s", category.getId(), inventoryId);
+        inventoryVersionService.bump(inventoryId);
 
         return category;
     }
@@ -116,6 +118,7 @@ public class CategoryService {
 
         category = categoryRepository.save(category);
         LoggerUtil.info(log, "Updated category %s", category.getId());
+        inventoryVersionService.bump(inventoryId);
 
         return category;
     }
@@ -138,6 +141,7 @@ public class CategoryService {
 
         categoryRepository.delete(category);
         LoggerUtil.info(log, "Deleted category %s", categoryId);
+        inventoryVersionService.bump(inventoryId);
     }
 
     public void reorderCategories(@NonNull User user, @NonNull UUID inventoryId, @NonNull List<UUID> categoryIds) {
@@ -165,6 +169,7 @@ public class CategoryService {
         }
 
         LoggerUtil.info(log, "Reordered categories in inventory %s", inventoryId);
+        inventoryVersionService.bump(inventoryId);
     }
 
     public Category setCategoryVisibility(@NonNull User user, @NonNull UUID inventoryId,
@@ -179,6 +184,7 @@ public class CategoryService {
         category.setHidden(hidden);
         category = categoryRepository.save(category);
         LoggerUtil.info(log, "Set category %s hidden=%s", category.getId(), hidden);
+        inventoryVersionService.bump(inventoryId);
 
         return category;
     }
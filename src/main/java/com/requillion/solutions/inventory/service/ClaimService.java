@@ -3,6 +3,7 @@ package com.requillion.solutions.inventory.service;
 import com.requillion.solutions.inventory.dto.AllClaimsResponseDTO;
 import com.requillion.solutions.inventory.dto.ClaimedItemDTO;
 import com.requillion.solutions.inventory.dto.InventoryEventDTO;
+import com.requillion.solutions.inventory.dto.ThumbnailMode;
 import com.requillion.solutions.inventory.exception.BadInputException;
 import com.requillion.solutions.inventory.exception.NotAuthorizedException;
 import com.requillion.solutions.inventory.exception.NotFoundException;
@@ -18,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,7 +33,9 @@ public class ClaimService {
     private final ItemRepository itemRepository;
     private final InventoryRepository inventoryRepository;
     private final InventoryMemberRepository memberRepository;
+    private final ItemImageService itemImageService;
     private final InventoryEventService eventService;
+    private final InventoryVersionService inventoryVersionService;
 
     public ItemClaim createClaim(@NonNull User user, @NonNull UUID inventoryId, @NonNull UUID itemId) {
         Item item = getItemWithAccess(user, inventoryId, itemId);
@@ -61,6 +65,8 @@ public class ClaimService {
         claim = claimRepository.save(claim);
         LoggerUtil.info(log, "User %s expressed interest in item %s", user.getId(), itemId);
 
+        inventoryVersionService.bump(inventoryId);
+
         eventService.publishEvent(InventoryEventDTO.claimCreated(inventoryId, itemId, claim.getId()));
 
         return claim;
@@ -86,8 +92,11 @@ public class ClaimService {
 
         UUID claimId = claim.getId();
         claimRepository.delete(claim);
+        markItemChanged(item);
         LoggerUtil.info(log, "User %s withdrew interest in item %s", user.getId(), itemId);
 
+        inventoryVersionService.bump(inventoryId);
+
         eventService.publishEvent(InventoryEventDTO.claimDeleted(inventoryId, itemId, claimId));
     }
 
@@ -138,6 +147,7 @@ public class ClaimService {
         claim = claimRepository.save(claim);
 
         LoggerUtil.info(log, "Item %s assigned to user %s", itemId, claim.getUser().getId());
+        inventoryVersionService.bump(inventoryId);
         eventService.publishEvent(InventoryEventDTO.itemAssigned(inventoryId, itemId, claim.getId()));
 
         return claim;
@@ -161,6 +171,7 @@ public class ClaimService {
         claimRepository.save(assignedClaim);
 
         LoggerUtil.info(log, "Item %s unassigned from user %s", itemId, assignedClaim.getUser().getId());
+        inventoryVersionService.bump(inventoryId);
         eventService.publishEvent(InventoryEventDTO.itemUnassigned(inventoryId, itemId));
     }
 
@@ -186,12 +197,16 @@ public class ClaimService {
         }
 
         claimRepository.delete(claim);
+        markItemChanged(item);
         LoggerUtil.info(log, "Admin %s removed claim %s from item %s", user.getId(), claimId, itemId);
 
+        inventoryVersionService.bump(inventoryId);
+
         eventService.publishEvent(InventoryEventDTO.claimDeleted(inventoryId, itemId, claimId));
     }
 
-    public List<AllClaimsResponseDTO> getAllClaims(@NonNull User user, @NonNull UUID inventoryId) {
+    public List<AllClaimsResponseDTO> getAllClaims(@NonNull User user, @NonNull UUID inventoryId,
+                                                   @NonNull ThumbnailMode thumbnailMode) {
         Inventory inventory = inventoryRepository.findById(inventoryId)
                 .orElseThrow(() -> new NotFoundException(
                         "Inventory not found",
@@ -221,13 +236,18 @@ public class ClaimService {
         Map<UUID, Long> claimCountByItem = allClaims.stream()
                 .collect(Collectors.groupingBy(c -> c.getItem().getId(), Collectors.counting()));
 
+        // Load thumbnails for all claimed items in one batch
+        ItemImageService.ListThumbnails thumbnails = itemImageService.getListThumbnails(
+                allClaims.stream().map(ItemClaim::getItem).filter(Item::getHasImage).map(Item::getId).toList(),
+                thumbnailMode);
+
         // Build response: owner first, then members sorted by name
         List<AllClaimsResponseDTO> result = new ArrayList<>();
 
         // Add owner (owner never has finished status, no member record)
         result.add(buildMemberClaims(owner.getId(), null,
                 owner.getFirstName() + " " + owner.getLastName(),
-                null, false, claimsByUser, claimCountByItem));
+                null, false, claimsByUser, claimCountByItem, thumbnails));
 
         // Add members (excluding owner to avoid duplicates), sorted by name
         members.stream()
@@ -240,7 +260,7 @@ public class ClaimService {
                 .forEach(member -> result.add(buildMemberClaims(
                         member.getUser().getId(), member.getId(),
                         member.getUser().getFirstName() + " " + member.getUser().getLastName(),
-                        member.getRole(), member.getFinishedAt() != null, claimsByUser, claimCountByItem)));
+                        member.getRole(), member.getFinishedAt() != null, claimsByUser, claimCountByItem, thumbnails)));
 
         return result;
     }
@@ -248,15 +268,24 @@ public class ClaimService {
     private AllClaimsResponseDTO buildMemberClaims(UUID userId, UUID memberId, String userName,
                                                     MemberRole role, boolean isFinished,
                                                     Map<UUID, List<ItemClaim>> claimsByUser,
-                                                    Map<UUID, Long> claimCountByItem) {
+                                                    Map<UUID, Long> claimCountByItem,
+                                                    ItemImageService.ListThumbnails thumbnails) {
         List<ItemClaim> userClaims = claimsByUser.getOrDefault(userId, List.of());
         List<ClaimedItemDTO> claimedItems = userClaims.stream()
                 .map(claim -> ClaimedItemDTO.fromClaim(claim,
-                        claimCountByItem.getOrDefault(claim.getItem().getId(), 0L).intValue()))
+                        claimCountByItem.getOrDefault(claim.getItem().getId(), 0L).intValue(),
+                        thumbnails.data().get(claim.getItem().getId()),
+                        thumbnails.versions().get(claim.getItem().getId())))
                 .toList();
         return new AllClaimsResponseDTO(userId, memberId, userName, role, isFinished, claimedItems);
     }
 
+    // Deleted claims leave no row behind, so the item's timestamp records the change for delta sync
+    private void markItemChanged(Item item) {
+        item.setUpdatedAt(Instant.now());
+        itemRepository.save(item);
+    }
+
     private Item getItemWithAccess(User user, UUID inventoryId, UUID itemId) {
         Inventory inventory = inventoryRepository.findById(inventoryId)
                 .orElseThrow(() -> new NotFoundException(
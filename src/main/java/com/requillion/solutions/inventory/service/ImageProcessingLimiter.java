@@ -0,0 +1,131 @@
+package com.requillion.solutions.inventory.service;
+
+import com.requillion.solutions.inventory.exception.TooManyRequestsException;
+import com.requillion.solutions.inventory.util.LoggerUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for image decoding. Every decode, whether in the upload workers or
+ * for an on-demand rendition, needs one of a CPU-bound number of slots and a share of a
+ * memory budget estimated from the image header. Bursts wait briefly for capacity;
+ * anything still not admitted gets a TooManyRequestsException (429 with Retry-After).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageProcessingLimiter {
+
+    // The budget is counted in KB so large budgets fit in a Semaphore's int permits
+    private static final int KB = 1024;
+
+    private final MeterRegistry meterRegistry;
+
+    // 0 means one slot per available processor
+    @Value("${app.image-processing.max-concurrent:0}")
+    private int maxConcurrent;
+
+    @Value("${app.image-processing.memory-budget:256MB}")
+    private DataSize memoryBudget;
+
+    @Value("${app.image-processing.admission-wait:PT2S}")
+    private Duration admissionWait;
+
+    @Value("${app.image-processing.retry-after:PT5S}")
+    private Duration retryAfter;
+
+    private Semaphore slots;
+    private Semaphore budget;
+    private int budgetKb;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    void init() {
+        if (maxConcurrent <= 0) {
+            maxConcurrent = Runtime.getRuntime().availableProcessors();
+        }
+        budgetKb = (int) Math.min(Integer.MAX_VALUE, Math.max(1, memoryBudget.toBytes() / KB));
+        slots = new Semaphore(maxConcurrent, true);
+        budget = new Semaphore(budgetKb, true);
+
+        Gauge.builder("inventory.images.admission.in_flight", inFlight, AtomicInteger::get)
+                .description("Image decodes currently admitted")
+                .register(meterRegistry);
+        Gauge.builder("inventory.images.admission.reserved", reservedBytes, AtomicLong::get)
+                .description("Estimated pixel memory held by admitted image decodes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("inventory.images.admission.rejected")
+                .description("Image decodes turned away because capacity was exhausted")
+                .register(meterRegistry);
+
+        LoggerUtil.info(log, "Image admission: %d concurrent decodes, %s memory budget",
+                maxConcurrent, memoryBudget);
+    }
+
+    // Waits up to the admission wait for a slot and the estimated memory. An estimate above
+    // the whole budget is capped so a single large image can still run on its own.
+    public Permit admit(long estimatedBytes) {
+        int kb = (int) Math.min(budgetKb, Math.max(1, (estimatedBytes + KB - 1) / KB));
+        long deadline = System.nanoTime() + admissionWait.toNanos();
+        try {
+            if (!slots.tryAcquire(admissionWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw reject("all %d decode slots busy", maxConcurrent);
+            }
+            if (!budget.tryAcquire(kb, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                slots.release();
+                throw reject("%d KB needed, %d KB of %d KB free", kb, budget.availablePermits(), budgetKb);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject("interrupted while waiting for capacity");
+        }
+        inFlight.incrementAndGet();
+        reservedBytes.addAndGet((long) kb * KB);
+        return new Permit(kb);
+    }
+
+    private TooManyRequestsException reject(String reasonFormat, Object... args) {
+        rejectedCounter.increment();
+        return new TooManyRequestsException(retryAfter,
+                "Too many images are being processed, please try again shortly",
+                "Image admission rejected: " + reasonFormat, args);
+    }
+
+    public final class Permit implements AutoCloseable {
+
+        private final int kb;
+        private boolean released;
+
+        private Permit(int kb) {
+            this.kb = kb;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            reservedBytes.addAndGet(-(long) kb * KB);
+            inFlight.decrementAndGet();
+            budget.release(kb);
+            slots.release();
+        }
+    }
+}
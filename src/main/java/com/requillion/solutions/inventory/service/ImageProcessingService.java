@@ -0,0 +1,292 @@
+package com.requillion.solutions.inventory.service;
+
+import com.requillion.solutions.inventory.dto.InventoryEventDTO;
+import com.requillion.solutions.inventory.exception.BadInputException;
+import com.requillion.solutions.inventory.exception.TooManyRequestsException;
+import com.requillion.solutions.inventory.model.ImageRendition;
+import com.requillion.solutions.inventory.model.ImageStatus;
+import com.requillion.solutions.inventory.model.Item;
+import com.requillion.solutions.inventory.repository.ItemRepository;
+import com.requillion.solutions.inventory.util.LoggerUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates item image renditions off the request thread. Uploads are stored as an
+ * ORIGINAL rendition and the item is marked PROCESSING; a bounded worker pool then
+ * builds the clean MASTER, the badged IMAGE and the THUMBNAIL and announces them with
+ * ITEM_UPDATED. Anything the pool could not take (full queue, restart) is picked up
+ * by the sweep.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageProcessingService {
+
+    private final ItemRepository itemRepository;
+    private final ItemImageService itemImageService;
+    private final ImageService imageService;
+    private final InventoryEventService eventService;
+    private final InventoryVersionService inventoryVersionService;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.image-processing.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${app.image-processing.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.image-processing.requeue-after:PT1M}")
+    private Duration requeueAfter;
+
+    private record PendingImage(UUID inventoryId, int referenceNumber, String originalHash, Resource original) {}
+
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate transactionTemplate;
+    private Timer processingTimer;
+    private Counter failureCounter;
+    private Counter reusedCounter;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("inventory.images.queue.depth", executor, e -> e.getQueue().size())
+                .description("Uploaded images waiting for a processing worker")
+                .register(meterRegistry);
+        processingTimer = Timer.builder("inventory.images.processing")
+                .description("Time to generate renditions for an uploaded image")
+                .register(meterRegistry);
+        failureCounter = Counter.builder("inventory.images.failures")
+                .description("Uploaded images that could not be processed")
+                .register(meterRegistry);
+        reusedCounter = Counter.builder("inventory.images.reused")
+                .description("Uploads identical to an already processed image, served from its renditions")
+                .register(meterRegistry);
+
+        LoggerUtil.info(log, "Image processing using %d workers, queue capacity %d", workerThreads, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Queued work is not lost: the items stay PROCESSING and are swept on the next start
+        executor.shutdownNow();
+    }
+
+    // Validates the upload and writes it to the blob store; needs no item and no locks
+    // The upload is read as a stream (header check, then hash and store), never as one array.
+    // Runs before the upload transaction opens, so its touch commits before anything is locked
+    @Transactional(propagation = Propagation.NEVER)
+    public ItemImageService.StoredContent stage(@NonNull Resource imageData) {
+        try {
+            imageService.validateImage(imageData);
+        } catch (IOException e) {
+            throw new BadInputException(
+                    "Failed to process image",
+                    "Error: %s", e.getMessage());
+        }
+        return itemImageService.putContent(imageData);
+    }
+
+    // Called inside the upload transaction; processing starts once the transaction commits
+    public void submit(@NonNull Item item, @NonNull ItemImageService.StoredContent original) {
+        // The same bytes were processed before: share those renditions and skip the pipeline
+        Optional<Item> processedBefore = itemImageService.reuseProcessedImage(item, original.contentHash());
+        if (processedBefore.isPresent()) {
+            itemImageService.releaseContent(original);
+            item.setHasImage(true);
+            item.setImagePlaceholder(processedBefore.get().getImagePlaceholder());
+            item.setImageStatus(ImageStatus.READY);
+            itemRepository.save(item);
+            reusedCounter.increment();
+            LoggerUtil.debug(log, "Reused processed image %s for item %s", original.contentHash(), item.getId());
+            return;
+        }
+
+        itemImageService.storeImage(item, ImageRendition.ORIGINAL, original);
+        item.setImageStatus(ImageStatus.PROCESSING);
+        itemRepository.save(item);
+
+        UUID itemId = item.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(itemId);
+                }
+            });
+        } else {
+            enqueue(itemId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.image-processing.sweep-interval:PT1M}")
+    public void requeueStalled() {
+        Instant cutoff = Instant.now().minus(requeueAfter);
+        List<Item> stalled = itemRepository.findTop100ByImageStatusAndUpdatedAtBeforeOrderByUpdatedAtAsc(
+                ImageStatus.PROCESSING, cutoff);
+        int queued = 0;
+        for (Item item : stalled) {
+            if (executor.getQueue().remainingCapacity() == 0) {
+                break;
+            }
+            if (enqueue(item.getId())) {
+                queued++;
+            }
+        }
+        if (queued > 0) {
+            LoggerUtil.info(log, "Re-queued %d images waiting for processing", queued);
+        }
+    }
+
+    private boolean enqueue(UUID itemId) {
+        if (!inFlight.add(itemId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> process(itemId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(itemId);
+            LoggerUtil.warn(log, "Image queue full, item %s will be picked up by the next sweep", itemId);
+            return false;
+        }
+    }
+
+    private void process(UUID itemId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        PendingImage pending = null;
+        try {
+            pending = transactionTemplate.execute(status -> loadPending(itemId));
+            if (pending == null) {
+                return;
+            }
+
+            ImageService.ProcessedImage processed = imageService.processImage(pending.original(), pending.referenceNumber());
+            ItemImageService.StoredRenditions stored = itemImageService.putRenditions(processed);
+            PendingImage source = pending;
+            Boolean applied = transactionTemplate.execute(status -> applyRenditions(itemId, source, processed, stored));
+
+            if (Boolean.TRUE.equals(applied)) {
+                LoggerUtil.debug(log, "Processed image for item %s: original=%d, compressed=%d, thumbnail=%d",
+                        itemId, pending.original().contentLength(), processed.image().length,
+                        processed.thumbnail().length);
+                eventService.publishEvent(InventoryEventDTO.itemUpdated(pending.inventoryId(), itemId));
+            }
+        } catch (TooManyRequestsException e) {
+            // Not the image's fault: leave it PROCESSING so the sweep retries it once load drops
+            LoggerUtil.warn(log, "No decode capacity for item %s, leaving it for the next sweep", itemId);
+        } catch (Exception e) {
+            failureCounter.increment();
+            LoggerUtil.error(log, "Failed to process image for item %s: %s", itemId, e.getMessage());
+            String originalHash = pending != null ? pending.originalHash() : null;
+            try {
+                UUID inventoryId = transactionTemplate.execute(status -> markFailed(itemId, originalHash));
+                if (inventoryId != null) {
+                    eventService.publishEvent(InventoryEventDTO.itemUpdated(inventoryId, itemId));
+                }
+            } catch (Exception markError) {
+                LoggerUtil.error(log, "Failed to mark image for item %s as failed: %s", itemId, markError.getMessage());
+            }
+        } finally {
+            sample.stop(processingTimer);
+            inFlight.remove(itemId);
+        }
+    }
+
+    private PendingImage loadPending(UUID itemId) {
+        Item item = itemRepository.findById(itemId).orElse(null);
+        if (item == null || item.getImageStatus() != ImageStatus.PROCESSING) {
+            return null;
+        }
+        String originalHash = itemImageService.getContentHash(item, ImageRendition.ORIGINAL).orElse(null);
+        Resource original = itemImageService.getImage(item, ImageRendition.ORIGINAL).orElse(null);
+        if (originalHash == null || original == null) {
+            throw new IllegalStateException("Original image missing for item " + itemId);
+        }
+        return new PendingImage(item.getInventory().getId(), item.getReferenceNumber(), originalHash, original);
+    }
+
+    // A newer upload replaces the ORIGINAL; results for the older one are discarded
+    private boolean applyRenditions(UUID itemId, PendingImage source, ImageService.ProcessedImage processed,
+                                    ItemImageService.StoredRenditions stored) {
+        Item item = itemRepository.findById(itemId).orElse(null);
+        if (item == null || !isStillPending(item, source.originalHash())) {
+            return false;
+        }
+
+        itemImageService.storeProcessedImage(item, ImageRendition.MASTER, stored.master(), source.originalHash());
+        itemImageService.storeImage(item, ImageRendition.IMAGE, stored.image(), source.referenceNumber());
+        itemImageService.storeProcessedImage(item, ImageRendition.THUMBNAIL, stored.thumbnail(),
+                source.originalHash());
+        itemImageService.deleteScaledImages(item);
+        itemImageService.deleteImage(item, ImageRendition.ORIGINAL);
+
+        item.setHasImage(true);
+        item.setImagePlaceholder(processed.placeholder());
+        item.setImageStatus(ImageStatus.READY);
+        itemRepository.save(item);
+        inventoryVersionService.bump(item.getInventory().getId());
+        return true;
+    }
+
+    private UUID markFailed(UUID itemId, String originalHash) {
+        Item item = itemRepository.findById(itemId).orElse(null);
+        if (item == null || item.getImageStatus() != ImageStatus.PROCESSING
+                || (originalHash != null && !isStillPending(item, originalHash))) {
+            return null;
+        }
+
+        itemImageService.deleteImage(item, ImageRendition.ORIGINAL);
+        item.setImageStatus(ImageStatus.FAILED);
+        itemRepository.save(item);
+        inventoryVersionService.bump(item.getInventory().getId());
+        return item.getInventory().getId();
+    }
+
+    private boolean isStillPending(Item item, String originalHash) {
+        return item.getImageStatus() == ImageStatus.PROCESSING
+                && Objects.equals(originalHash,
+                        itemImageService.getContentHash(item, ImageRendition.ORIGINAL).orElse(null));
+    }
+}
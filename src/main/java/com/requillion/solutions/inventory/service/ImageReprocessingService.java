@@ -0,0 +1,347 @@
+package com.requillion.solutions.inventory.service;
+
+import com.requillion.solutions.inventory.dto.InventoryEventDTO;
+import com.requillion.solutions.inventory.exception.TooManyRequestsException;
+import com.requillion.solutions.inventory.model.ImageRendition;
+import com.requillion.solutions.inventory.model.ImageReprocessJob;
+import com.requillion.solutions.inventory.model.ImageReprocessStatus;
+import com.requillion.solutions.inventory.model.ImageStatus;
+import com.requillion.solutions.inventory.model.Item;
+import com.requillion.solutions.inventory.repository.ImageReprocessJobRepository;
+import com.requillion.solutions.inventory.repository.ItemRepository;
+import com.requillion.solutions.inventory.util.LoggerUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rebuilds the renditions of existing items after the image settings change. A job walks
+ * items with images in id order, one chunk per tick: the chunk's items are reprocessed by
+ * a small worker pool, then the counts and the id of the last finished item are saved, so
+ * a job survives restarts and resumes from its cursor. The pause between chunks, the pool
+ * size and the shared decode admission keep it from crowding out uploads and page views;
+ * an item turned away by admission is retried in a later chunk rather than counted as failed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageReprocessingService {
+
+    private static final UUID START_OF_ITEMS = new UUID(0, 0);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final ImageReprocessJobRepository jobRepository;
+    private final ItemRepository itemRepository;
+    private final ItemImageService itemImageService;
+    private final ImageService imageService;
+    private final InventoryEventService eventService;
+    private final InventoryVersionService inventoryVersionService;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.image-reprocessing.chunk-size:50}")
+    private int chunkSize;
+
+    @Value("${app.image-reprocessing.parallelism:2}")
+    private int parallelism;
+
+    @Value("${app.image-reprocessing.lease:PT2M}")
+    private Duration lease;
+
+    private enum Outcome { REPROCESSED, SKIPPED, FAILED, DEFERRED }
+
+    private record ItemResult(UUID itemId, Outcome outcome, String error) {}
+
+    private record Source(int referenceNumber, String masterHash, String masterSourceHash, byte[] data) {}
+
+    // Progress of the job on this node since it took the lease, for the rate and ETA
+    private record LocalRun(UUID jobId, Instant startedAt, int startedAtCount) {}
+
+    public record JobProgress(ImageReprocessJob job, Double itemsPerSecond, Duration estimatedRemaining) {}
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private ExecutorService executor;
+    private TransactionTemplate transactionTemplate;
+    private Counter reprocessedCounter;
+    private Counter failureCounter;
+    private volatile LocalRun localRun;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "image-reprocess-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        reprocessedCounter = Counter.builder("inventory.images.reprocessed")
+                .description("Existing item images rebuilt by a reprocessing job")
+                .register(meterRegistry);
+        failureCounter = Counter.builder("inventory.images.reprocess.failures")
+                .description("Existing item images a reprocessing job could not rebuild")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // The cursor only moves once a chunk is saved, so an interrupted chunk is redone
+        executor.shutdownNow();
+    }
+
+    // Starts a job over every item with an image, or returns the one already running
+    public ImageReprocessJob startJob() {
+        try {
+            return transactionTemplate.execute(status ->
+                    jobRepository.findFirstByStatus(ImageReprocessStatus.RUNNING).orElseGet(() -> {
+                        ImageReprocessJob job = new ImageReprocessJob();
+                        job.setTotalItems((int) itemRepository.countByHasImageTrue());
+                        job = jobRepository.saveAndFlush(job);
+                        LoggerUtil.info(log, "Started image reprocessing job %s over %d items",
+                                job.getId(), job.getTotalItems());
+                        return job;
+                    }));
+        } catch (DataIntegrityViolationException e) {
+            // Another node started one at the same moment
+            return transactionTemplate.execute(status ->
+                    jobRepository.findFirstByStatus(ImageReprocessStatus.RUNNING).orElseThrow(() -> e));
+        }
+    }
+
+    public Optional<ImageReprocessJob> cancelJob() {
+        return transactionTemplate.execute(status ->
+                jobRepository.findFirstByStatus(ImageReprocessStatus.RUNNING).map(job -> {
+                    job.setStatus(ImageReprocessStatus.CANCELLED);
+                    job.setCompletedAt(Instant.now());
+                    job.setLeaseOwner(null);
+                    job.setLeaseExpiresAt(null);
+                    LoggerUtil.info(log, "Cancelled image reprocessing job %s", job.getId());
+                    return jobRepository.save(job);
+                }));
+    }
+
+    // The latest job with its rate and ETA; the rate is measured on the node doing the work
+    // and falls back to the job's average elsewhere
+    public Optional<JobProgress> getProgress() {
+        Optional<ImageReprocessJob> latest = transactionTemplate.execute(status ->
+                jobRepository.findFirstByOrderByCreatedAtDesc());
+        return latest.map(job -> {
+            int done = job.getProcessedItems() + job.getFailedItems();
+            LocalRun run = localRun;
+            double seconds;
+            int counted;
+            if (run != null && run.jobId().equals(job.getId())) {
+                seconds = Duration.between(run.startedAt(), Instant.now()).toMillis() / 1000.0;
+                counted = done - run.startedAtCount();
+            } else {
+                Instant end = job.getCompletedAt() != null ? job.getCompletedAt() : job.getUpdatedAt();
+                seconds = Duration.between(job.getCreatedAt(), end).toMillis() / 1000.0;
+                counted = done;
+            }
+            Double rate = seconds > 0 && counted > 0 ? counted / seconds : null;
+            Duration remaining = null;
+            if (job.getStatus() == ImageReprocessStatus.RUNNING && rate != null) {
+                int left = Math.max(0, job.getTotalItems() - done);
+                remaining = Duration.ofSeconds((long) Math.ceil(left / rate));
+            }
+            return new JobProgress(job, rate, remaining);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.image-reprocessing.chunk-interval:PT5S}")
+    public void processNextChunk() {
+        ImageReprocessJob job = transactionTemplate.execute(status -> claimRunningJob());
+        if (job == null) {
+            localRun = null;
+            return;
+        }
+        LocalRun run = localRun;
+        if (run == null || !run.jobId().equals(job.getId())) {
+            localRun = new LocalRun(job.getId(), Instant.now(), job.getProcessedItems() + job.getFailedItems());
+        }
+
+        UUID afterId = job.getLastItemId() != null ? job.getLastItemId() : START_OF_ITEMS;
+        List<UUID> itemIds = itemRepository.findIdsWithImageAfter(afterId, Limit.of(chunkSize));
+        if (itemIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> completeJob(job.getId()));
+            return;
+        }
+
+        List<Future<ItemResult>> futures = new ArrayList<>();
+        for (UUID itemId : itemIds) {
+            futures.add(executor.submit(() -> reprocessItem(itemId)));
+        }
+        List<ItemResult> results = new ArrayList<>();
+        for (Future<ItemResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Reprocessing task failed", e.getCause());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> recordChunk(job.getId(), results));
+    }
+
+    private ImageReprocessJob claimRunningJob() {
+        ImageReprocessJob job = jobRepository.findFirstByStatus(ImageReprocessStatus.RUNNING).orElse(null);
+        if (job == null || jobRepository.claimLease(job.getId(), nodeId, Instant.now().plus(lease)) == 0) {
+            return null;
+        }
+        return job;
+    }
+
+    // Counts every item up to the first deferred one and moves the cursor past them; the
+    // deferred item and anything after it are picked up again by the next chunk
+    private void recordChunk(UUID jobId, List<ItemResult> results) {
+        ImageReprocessJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != ImageReprocessStatus.RUNNING || !nodeId.equals(job.getLeaseOwner())) {
+            return;
+        }
+
+        int processed = 0;
+        int failed = 0;
+        for (ItemResult result : results) {
+            if (result.outcome() == Outcome.DEFERRED) {
+                LoggerUtil.debug(log, "Reprocessing paused at item %s until decode capacity frees up", result.itemId());
+                break;
+            }
+            if (result.outcome() == Outcome.FAILED) {
+                failed++;
+                job.setLastError(truncate(result.itemId() + ": " + result.error()));
+            } else {
+                processed++;
+            }
+            job.setLastItemId(result.itemId());
+        }
+        job.setProcessedItems(job.getProcessedItems() + processed);
+        job.setFailedItems(job.getFailedItems() + failed);
+        // New uploads after the start can push the count past the original total
+        job.setTotalItems(Math.max(job.getTotalItems(), job.getProcessedItems() + job.getFailedItems()));
+        jobRepository.save(job);
+
+        LoggerUtil.debug(log, "Image reprocessing job %s: %d processed, %d failed (%d of %d done)",
+                jobId, processed, failed, job.getProcessedItems() + job.getFailedItems(), job.getTotalItems());
+    }
+
+    private void completeJob(UUID jobId) {
+        jobRepository.findById(jobId)
+                .filter(job -> job.getStatus() == ImageReprocessStatus.RUNNING)
+                .ifPresent(job -> {
+                    job.setStatus(ImageReprocessStatus.COMPLETED);
+                    job.setCompletedAt(Instant.now());
+                    job.setTotalItems(job.getProcessedItems() + job.getFailedItems());
+                    job.setLeaseOwner(null);
+                    job.setLeaseExpiresAt(null);
+                    jobRepository.save(job);
+                    LoggerUtil.info(log, "Image reprocessing job %s completed: %d processed, %d failed",
+                            jobId, job.getProcessedItems(), job.getFailedItems());
+                });
+    }
+
+    private ItemResult reprocessItem(UUID itemId) {
+        try {
+            Source source = transactionTemplate.execute(status -> loadSource(itemId));
+            if (source == null) {
+                return new ItemResult(itemId, Outcome.SKIPPED, null);
+            }
+
+            ImageService.ProcessedImage renditions = imageService.reprocessMaster(source.data(), source.referenceNumber());
+
+            ItemImageService.StoredRenditions stored = itemImageService.putRenditions(renditions);
+            UUID inventoryId = transactionTemplate.execute(status ->
+                    applyRenditions(itemId, source, renditions, stored));
+            if (inventoryId == null) {
+                return new ItemResult(itemId, Outcome.SKIPPED, null);
+            }
+            reprocessedCounter.increment();
+            eventService.publishEvent(InventoryEventDTO.itemUpdated(inventoryId, itemId));
+            return new ItemResult(itemId, Outcome.REPROCESSED, null);
+        } catch (TooManyRequestsException e) {
+            return new ItemResult(itemId, Outcome.DEFERRED, null);
+        } catch (Exception e) {
+            failureCounter.increment();
+            LoggerUtil.warn(log, "Failed to reprocess image for item %s: %s", itemId, e.getMessage());
+            return new ItemResult(itemId, Outcome.FAILED, e.getMessage());
+        }
+    }
+
+    // Only settled images are rebuilt; uploads still in the pipeline get the new settings anyway.
+    // Legacy items have no master, only an IMAGE with the badge burned in, so they keep their
+    // renditions until the image is uploaded again
+    private Source loadSource(UUID itemId) {
+        Item item = itemRepository.findById(itemId).orElse(null);
+        if (item == null || !item.getHasImage() || item.getImageStatus() != ImageStatus.READY) {
+            return null;
+        }
+        String masterHash = itemImageService.getContentHash(item, ImageRendition.MASTER).orElse(null);
+        if (masterHash == null) {
+            return null;
+        }
+        return itemImageService.getImageBytes(item, ImageRendition.MASTER)
+                .map(data -> new Source(item.getReferenceNumber(), masterHash,
+                        itemImageService.getSourceHash(item, ImageRendition.MASTER).orElse(null), data))
+                .orElse(null);
+    }
+
+    // Results are dropped if the item was re-uploaded or renumbered while they were built
+    private UUID applyRenditions(UUID itemId, Source source, ImageService.ProcessedImage renditions,
+                                 ItemImageService.StoredRenditions stored) {
+        Item item = itemRepository.findById(itemId).orElse(null);
+        if (item == null || item.getImageStatus() != ImageStatus.READY
+                || item.getReferenceNumber() != source.referenceNumber()
+                || !Objects.equals(source.masterHash(),
+                        itemImageService.getContentHash(item, ImageRendition.MASTER).orElse(null))) {
+            return null;
+        }
+
+        if (source.masterSourceHash() != null) {
+            itemImageService.storeProcessedImage(item, ImageRendition.MASTER, stored.master(),
+                    source.masterSourceHash());
+            itemImageService.storeImage(item, ImageRendition.IMAGE, stored.image(), source.referenceNumber());
+            itemImageService.storeProcessedImage(item, ImageRendition.THUMBNAIL, stored.thumbnail(),
+                    source.masterSourceHash());
+        } else {
+            itemImageService.storeImage(item, ImageRendition.MASTER, stored.master());
+            itemImageService.storeImage(item, ImageRendition.IMAGE, stored.image(), source.referenceNumber());
+            itemImageService.storeImage(item, ImageRendition.THUMBNAIL, stored.thumbnail());
+        }
+        itemImageService.deleteScaledImages(item);
+        item.setImagePlaceholder(renditions.placeholder());
+        itemRepository.save(item);
+        inventoryVersionService.bump(item.getInventory().getId());
+        return item.getInventory().getId();
+    }
+
+    private String truncate(String message) {
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
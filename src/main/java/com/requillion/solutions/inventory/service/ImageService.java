@@ -1,90 +1,396 @@
 package com.requillion.solutions.inventory.service;
 
+import com.requillion.solutions.inventory.exception.BadInputException;
+import com.requillion.solutions.inventory.util.BlurHash;
 import com.requillion.solutions.inventory.util.LoggerUtil;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileCacheImageInputStream;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import javax.imageio.stream.ImageOutputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class ImageService {
 
     private static final int MAX_IMAGE_WIDTH = 1920;
     private static final int MAX_IMAGE_HEIGHT = 1080;
     private static final int THUMBNAIL_SIZE = 200;
     private static final float COMPRESSION_QUALITY = 0.7f;
+    private static final float THUMBNAIL_QUALITY = 0.8f;
+    // Masters are re-encoded whenever a badged rendition is drawn, so keep generation loss low
+    private static final float MASTER_QUALITY = 0.9f;
+
+    // Badge text is 1/20 of the short side, never below these sizes
+    private static final int MIN_BADGE_FONT_SIZE = 24;
+    private static final int MIN_SCALED_BADGE_FONT_SIZE = 8;
+    private static final String BADGE_CHARACTERS = "#0123456789";
+
+    // 4x3 components keep the placeholder under 30 characters
+    private static final int PLACEHOLDER_COMPONENTS_X = 4;
+    private static final int PLACEHOLDER_COMPONENTS_Y = 3;
+
+    // Widths clients may request; anything else is snapped up to the next step
+    private static final int[] WIDTH_LADDER = {96, 200, 400, 800, MAX_IMAGE_WIDTH};
+    private static final int MAX_THUMBNAIL_SIZE = 400;
+
+    // Decoded raster plus the scaling and encoding buffers derived from it, per decoded pixel
+    private static final int ESTIMATED_BYTES_PER_PIXEL = 8;
+
+    private final ImageProcessingLimiter limiter;
+    private final Queue<Workspace> workspaces = new ConcurrentLinkedQueue<>();
+    private final Map<Integer, GlyphSprite> glyphSprites = new ConcurrentHashMap<>();
+
+    // Checked against the header before any pixels are decoded
+    @Value("${app.image-processing.max-pixels:100000000}")
+    private long maxPixels;
+
+    // A clean master, the badged full-size image drawn from it, the (unbadged) thumbnail
+    // and a BlurHash placeholder of that thumbnail
+    public record ProcessedImage(byte[] master, byte[] image, byte[] thumbnail, String placeholder) {}
+
+    // Thumbnails laid out left to right, top to bottom in tileSize squares
+    public record SpriteSheet(byte[] image, int tileSize, int columns, int width, int height) {}
+
+    // Decodes the upload once and derives every rendition from the same pixels. The
+    // main image bounds also cover the thumbnail, so one subsampled decode serves both.
+    public ProcessedImage processImage(Resource originalImage, int referenceNumber) throws IOException {
+        try (ImageInputStream iis = openImageStream(originalImage)) {
+            return decode(iis, MAX_IMAGE_WIDTH, MAX_IMAGE_HEIGHT, false, (source, workspace) -> {
+                // Thumbnail first: the badge below draws onto the source when no resize is needed,
+                // and the resize reuses the scratch rasters the thumbnail was scaled in
+                BufferedImage thumbnailImage = createSquareThumbnail(source, THUMBNAIL_SIZE, workspace);
+                String placeholder = placeholder(thumbnailImage);
+                byte[] thumbnail = compressToJpeg(thumbnailImage, THUMBNAIL_QUALITY, workspace);
+
+                BufferedImage image = resizeIfNeeded(source, MAX_IMAGE_WIDTH, MAX_IMAGE_HEIGHT, workspace);
+                byte[] master = compressToJpeg(image, MASTER_QUALITY, workspace);
+
+                drawBadge(image, referenceNumber, badgeFontSize(image.getWidth(), image.getHeight()));
+                return new ProcessedImage(master, compressToJpeg(image, COMPRESSION_QUALITY, workspace), thumbnail,
+                        placeholder);
+            });
+        }
+    }
 
-    public byte[] compressImage(byte[] originalImage, int referenceNumber) throws IOException {
-        BufferedImage image = ImageIO.read(new ByteArrayInputStream(originalImage));
-        if (image == null) {
-            throw new IOException("Invalid image data");
+    // Rebuilds the renditions of an existing item from its master. A master already within
+    // the current bounds is kept byte for byte so repeated runs don't compound JPEG loss.
+    public ProcessedImage reprocessMaster(byte[] master, int referenceNumber) throws IOException {
+        ProcessedImage processed = processImage(new ByteArrayResource(master), referenceNumber);
+        Dimension size = imageSize(master);
+        if (size.width <= MAX_IMAGE_WIDTH && size.height <= MAX_IMAGE_HEIGHT) {
+            return new ProcessedImage(master, processed.image(), processed.thumbnail(), processed.placeholder());
         }
+        return processed;
+    }
 
-        // Resize if necessary
-        image = resizeIfNeeded(image, MAX_IMAGE_WIDTH, MAX_IMAGE_HEIGHT);
+    public int snapImageWidth(int requestedWidth) {
+        return snapToLadder(requestedWidth, MAX_IMAGE_WIDTH);
+    }
 
-        // Add reference number overlay
-        image = addReferenceNumber(image, referenceNumber);
+    public int snapThumbnailSize(int requestedSize) {
+        return snapToLadder(requestedSize, MAX_THUMBNAIL_SIZE);
+    }
 
-        // Compress
-        return compressToJpeg(image, COMPRESSION_QUALITY);
+    public boolean isFullImageWidth(int width) {
+        return width >= MAX_IMAGE_WIDTH;
     }
 
-    private BufferedImage addReferenceNumber(BufferedImage image, int referenceNumber) {
-        Graphics2D g = image.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+    public boolean isDefaultThumbnailSize(int size) {
+        return size == THUMBNAIL_SIZE;
+    }
 
-        String text = "#" + referenceNumber;
+    // Draws the reference badge onto the clean master, scaled to a ladder width (0 for full
+    // size). The badge keeps its full-size proportion so every width looks the same.
+    public byte[] renderBadgedImage(byte[] master, int width, int referenceNumber) throws IOException {
+        Dimension size = imageSize(master);
+        int targetWidth = width <= 0 ? size.width : Math.min(width, size.width);
+        int targetHeight = Math.max(1, (int) Math.round((double) size.height * targetWidth / size.width));
+        int fontSize = targetWidth == size.width
+                ? badgeFontSize(size.width, size.height)
+                : Math.max(MIN_SCALED_BADGE_FONT_SIZE,
+                        badgeFontSize(size.width, size.height) * targetWidth / size.width);
+
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(new ByteArrayInputStream(master))) {
+            return decode(iis, targetWidth, Integer.MAX_VALUE, false, (source, workspace) -> {
+                BufferedImage image = source.getWidth() > targetWidth
+                        ? scaleDown(source, targetWidth, targetHeight, workspace)
+                        : source;
+                drawBadge(image, referenceNumber, fontSize);
+                return compressToJpeg(image, COMPRESSION_QUALITY, workspace);
+            });
+        }
+    }
 
-        // Scale font size based on image dimensions
-        int fontSize = Math.max(24, Math.min(image.getWidth(), image.getHeight()) / 20);
-        Font font = new Font("SansSerif", Font.BOLD, fontSize);
-        g.setFont(font);
+    // Scales a legacy image (badge already burned in) down to a ladder width;
+    // images already that narrow are returned as-is
+    public byte[] scaleToWidth(byte[] image, int width) throws IOException {
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(new ByteArrayInputStream(image))) {
+            return decode(iis, width, Integer.MAX_VALUE, false, (source, workspace) -> {
+                if (source.getWidth() <= width) {
+                    return image;
+                }
+                int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+                return compressToJpeg(scaleDown(source, width, height, workspace), COMPRESSION_QUALITY, workspace);
+            });
+        }
+    }
 
-        FontMetrics fm = g.getFontMetrics();
-        int textWidth = fm.stringWidth(text);
-        int textHeight = fm.getHeight();
+    public byte[] squareThumbnail(byte[] image, int size) throws IOException {
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(new ByteArrayInputStream(image))) {
+            return decode(iis, size, size, true, (cropped, workspace) ->
+                    compressToJpeg(scaleDown(cropped, size, size, workspace), THUMBNAIL_QUALITY, workspace));
+        }
+    }
 
+    // Composites stored thumbnails into one atlas. Tiles are already thumbnail sized, so the
+    // permit only has to cover the atlas itself; a tile that fails to decode is left blank.
+    public SpriteSheet composeSprite(List<byte[]> thumbnails, int columns) throws IOException {
+        int rows = Math.ceilDiv(thumbnails.size(), columns);
+        int width = columns * THUMBNAIL_SIZE;
+        int height = rows * THUMBNAIL_SIZE;
+
+        try (ImageProcessingLimiter.Permit permit = limiter.admit((long) width * height * ESTIMATED_BYTES_PER_PIXEL)) {
+            BufferedImage atlas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = atlas.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            for (int i = 0; i < thumbnails.size(); i++) {
+                BufferedImage tile = ImageIO.read(new ByteArrayInputStream(thumbnails.get(i)));
+                if (tile == null) {
+                    continue;
+                }
+                g.drawImage(tile, (i % columns) * THUMBNAIL_SIZE, (i / columns) * THUMBNAIL_SIZE,
+                        THUMBNAIL_SIZE, THUMBNAIL_SIZE, null);
+            }
+            g.dispose();
+
+            Workspace workspace = borrowWorkspace();
+            try {
+                return new SpriteSheet(compressToJpeg(atlas, THUMBNAIL_QUALITY, workspace),
+                        THUMBNAIL_SIZE, columns, width, height);
+            } finally {
+                workspaces.offer(workspace);
+            }
+        }
+    }
+
+    // Cheap format and size check from the header so bad uploads are rejected before processing is queued
+    public void validateImage(Resource imageData) throws IOException {
+        // Only the header is read, so an in-memory cache stays small whatever the upload size
+        try (InputStream in = imageData.getInputStream();
+             ImageInputStream iis = new MemoryCacheImageInputStream(in)) {
+            ImageReader reader = openReader(iis);
+            try {
+                checkDimensions(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface DecodedImageHandler<T> {
+        T apply(BufferedImage image, Workspace workspace) throws IOException;
+    }
+
+    // Decodes only as many pixels as the target needs: the header dimensions pick a source
+    // subsampling factor (and, for square crops, a source region) so peak memory follows
+    // the target size rather than the upload. The handler runs under an admission permit
+    // sized from the decoded dimensions, so the permit covers everything derived from them.
+    private <T> T decode(ImageInputStream iis, int targetWidth, int targetHeight, boolean squareCrop,
+                         DecodedImageHandler<T> handler) throws IOException {
+        ImageReader reader = openReader(iis);
+        try {
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            checkDimensions(width, height);
+
+            ImageReadParam param = reader.getDefaultReadParam();
+            int regionWidth = width;
+            int regionHeight = height;
+            if (squareCrop) {
+                int cropSize = Math.min(width, height);
+                param.setSourceRegion(new Rectangle((width - cropSize) / 2, (height - cropSize) / 2,
+                        cropSize, cropSize));
+                regionWidth = cropSize;
+                regionHeight = cropSize;
+            }
+
+            int subsampling = subsamplingFor(regionWidth, regionHeight, targetWidth, targetHeight);
+            if (subsampling > 1) {
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                LoggerUtil.debug(log, "Decoding %dx%d image with %dx subsampling", width, height, subsampling);
+            }
+            long decodedPixels = (long) Math.ceilDiv(regionWidth, subsampling) * Math.ceilDiv(regionHeight, subsampling);
+            try (ImageProcessingLimiter.Permit permit = limiter.admit(decodedPixels * ESTIMATED_BYTES_PER_PIXEL)) {
+                BufferedImage image = reader.read(0, param);
+                if (image == null) {
+                    throw new IOException("Invalid image data");
+                }
+                Workspace workspace = borrowWorkspace();
+                try {
+                    return handler.apply(image, workspace);
+                } finally {
+                    workspaces.offer(workspace);
+                }
+            }
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    // Files are read in place; other resources are cached to disk as the reader seeks,
+    // so neither path holds the whole upload in the heap
+    private ImageInputStream openImageStream(Resource resource) throws IOException {
+        if (resource.isFile()) {
+            return new FileImageInputStream(resource.getFile());
+        }
+        InputStream in = resource.getInputStream();
+        return new FileCacheImageInputStream(in, null) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    in.close();
+                }
+            }
+        };
+    }
+
+    private ImageReader openReader(ImageInputStream iis) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+        if (!readers.hasNext()) {
+            throw new IOException("Unsupported image format");
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(iis, true, true);
+        return reader;
+    }
+
+    // Rejects decompression bombs on the header alone, before any pixel buffer is allocated
+    private void checkDimensions(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new BadInputException(
+                    "Failed to process image",
+                    "Invalid image dimensions %dx%d", width, height);
+        }
+        if ((long) width * height > maxPixels) {
+            throw new BadInputException(
+                    "Image dimensions are too large",
+                    "Image %dx%d exceeds the %d pixel limit", width, height, maxPixels);
+        }
+    }
+
+    // Subsampling skips source pixels without filtering, so keep at least twice the target
+    // resolution and let scaleDown do the final, smoothed reduction
+    private int subsamplingFor(int width, int height, int targetWidth, int targetHeight) {
+        double scale = Math.min((double) targetWidth / width, (double) targetHeight / height);
+        if (scale >= 0.5) {
+            return 1;
+        }
+        return Math.max(1, (int) Math.floor(1 / (scale * 2)));
+    }
+
+    private int snapToLadder(int requested, int max) {
+        for (int step : WIDTH_LADDER) {
+            if (step >= requested || step >= max) {
+                return Math.min(step, max);
+            }
+        }
+        return max;
+    }
+
+    // Halves the image until close to the target so large reductions don't alias
+    // Steps alternate between the workspace's two scratch rasters, so the result is only
+    // valid until the workspace scales something else
+    private BufferedImage scaleDown(BufferedImage image, int targetWidth, int targetHeight, Workspace workspace) {
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int scratchIndex = 0;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = workspace.scratch(scratchIndex, width, height);
+            scratchIndex ^= 1;
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = step;
+        } while (width > targetWidth || height > targetHeight);
+        return current;
+    }
+
+    private int badgeFontSize(int width, int height) {
+        return Math.max(MIN_BADGE_FONT_SIZE, Math.min(width, height) / 20);
+    }
+
+    // White rounded box with #<ref> in the top-left corner, drawn from a cached glyph
+    // sprite so no text layout happens per image
+    private void drawBadge(BufferedImage image, int referenceNumber, int fontSize) {
+        GlyphSprite sprite = glyphSprites.computeIfAbsent(fontSize, GlyphSprite::render);
+        String text = "#" + referenceNumber;
+
+        int textWidth = sprite.width(text);
         int padding = fontSize / 3;
         int x = padding;
         int y = padding;
 
-        // Draw white background
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g.setColor(Color.WHITE);
-        g.fillRoundRect(x, y, textWidth + padding * 2, textHeight + padding, padding, padding);
-
-        // Draw black text
-        g.setColor(Color.BLACK);
-        g.drawString(text, x + padding, y + fm.getAscent() + padding / 2);
-
+        g.fillRoundRect(x, y, textWidth + padding * 2, sprite.height + padding, padding, padding);
+        sprite.draw(g, text, x + padding, y + padding / 2);
         g.dispose();
-        return image;
     }
 
-    public byte[] createThumbnail(byte[] originalImage) throws IOException {
-        BufferedImage image = ImageIO.read(new ByteArrayInputStream(originalImage));
-        if (image == null) {
-            throw new IOException("Invalid image data");
-        }
-
-        // Create square thumbnail
-        BufferedImage thumbnail = createSquareThumbnail(image, THUMBNAIL_SIZE);
+    private String placeholder(BufferedImage thumbnail) {
+        return BlurHash.encode(thumbnail, PLACEHOLDER_COMPONENTS_X, PLACEHOLDER_COMPONENTS_Y);
+    }
 
-        return compressToJpeg(thumbnail, 0.8f);
+    private Dimension imageSize(byte[] imageData) throws IOException {
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(new ByteArrayInputStream(imageData))) {
+            ImageReader reader = openReader(iis);
+            try {
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
     }
 
-    private BufferedImage resizeIfNeeded(BufferedImage image, int maxWidth, int maxHeight) {
+    private BufferedImage resizeIfNeeded(BufferedImage image, int maxWidth, int maxHeight, Workspace workspace) {
         int width = image.getWidth();
         int height = image.getHeight();
 
@@ -96,20 +402,16 @@ public class ImageService {
         double heightRatio = (double) maxHeight / height;
         double ratio = Math.min(widthRatio, heightRatio);
 
-        int newWidth = (int) (width * ratio);
-        int newHeight = (int) (height * ratio);
+        int newWidth = Math.max(1, (int) (width * ratio));
+        int newHeight = Math.max(1, (int) (height * ratio));
 
-        BufferedImage resized = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g = resized.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g.drawImage(image, 0, 0, newWidth, newHeight, null);
-        g.dispose();
+        BufferedImage resized = scaleDown(image, newWidth, newHeight, workspace);
 
         LoggerUtil.debug(log, "Resized image from %dx%d to %dx%d", width, height, newWidth, newHeight);
         return resized;
     }
 
-    private BufferedImage createSquareThumbnail(BufferedImage image, int size) {
+    private BufferedImage createSquareThumbnail(BufferedImage image, int size, Workspace workspace) {
         int width = image.getWidth();
         int height = image.getHeight();
 
@@ -119,37 +421,146 @@ public class ImageService {
         int y = (height - cropSize) / 2;
 
         BufferedImage cropped = image.getSubimage(x, y, cropSize, cropSize);
+        if (cropSize <= size) {
+            // Upscale small sources to the requested size as before
+            BufferedImage thumbnail = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = thumbnail.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(cropped, 0, 0, size, size, null);
+            g.dispose();
+            return thumbnail;
+        }
+        return scaleDown(cropped, size, size, workspace);
+    }
 
-        BufferedImage thumbnail = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g = thumbnail.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g.drawImage(cropped, 0, 0, size, size, null);
-        g.dispose();
-
-        return thumbnail;
+    private byte[] compressToJpeg(BufferedImage image, float quality, Workspace workspace) throws IOException {
+        ByteArrayOutputStream output = workspace.output();
+        ImageWriter writer = workspace.writer;
+        // Memory-cached so encoding never spills to a temp file
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(output)) {
+            writer.setOutput(ios);
+            workspace.writeParam.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), workspace.writeParam);
+        } finally {
+            writer.reset();
+        }
+        return output.toByteArray();
     }
 
-    private byte[] compressToJpeg(BufferedImage image, float quality) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    // Black badge characters rendered once per font size onto a transparent strip
+    private static final class GlyphSprite {
+
+        private final BufferedImage sheet;
+        private final int[] offsets = new int[BADGE_CHARACTERS.length()];
+        private final int[] advances = new int[BADGE_CHARACTERS.length()];
+        private final int height;
+
+        private GlyphSprite(BufferedImage sheet, int height) {
+            this.sheet = sheet;
+            this.height = height;
+        }
 
-        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
-        if (!writers.hasNext()) {
-            throw new IOException("No JPEG writer available");
+        static GlyphSprite render(int fontSize) {
+            Font font = new Font("SansSerif", Font.BOLD, fontSize);
+            BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D pg = probe.createGraphics();
+            FontMetrics fm = pg.getFontMetrics(font);
+            pg.dispose();
+
+            int totalWidth = 0;
+            for (int i = 0; i < BADGE_CHARACTERS.length(); i++) {
+                totalWidth += fm.charWidth(BADGE_CHARACTERS.charAt(i));
+            }
+            GlyphSprite sprite = new GlyphSprite(
+                    new BufferedImage(totalWidth, fm.getHeight(), BufferedImage.TYPE_INT_ARGB), fm.getHeight());
+
+            Graphics2D g = sprite.sheet.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(font);
+            g.setColor(Color.BLACK);
+            int offset = 0;
+            for (int i = 0; i < BADGE_CHARACTERS.length(); i++) {
+                char c = BADGE_CHARACTERS.charAt(i);
+                sprite.offsets[i] = offset;
+                sprite.advances[i] = fm.charWidth(c);
+                g.drawString(String.valueOf(c), offset, fm.getAscent());
+                offset += sprite.advances[i];
+            }
+            g.dispose();
+            return sprite;
         }
-        ImageWriter writer = writers.next();
 
-        ImageOutputStream ios = ImageIO.createImageOutputStream(baos);
-        writer.setOutput(ios);
+        int width(String text) {
+            int width = 0;
+            for (int i = 0; i < text.length(); i++) {
+                width += advances[BADGE_CHARACTERS.indexOf(text.charAt(i))];
+            }
+            return width;
+        }
 
-        ImageWriteParam param = writer.getDefaultWriteParam();
-        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-        param.setCompressionQuality(quality);
+        void draw(Graphics2D g, String text, int x, int y) {
+            for (int i = 0; i < text.length(); i++) {
+                int glyph = BADGE_CHARACTERS.indexOf(text.charAt(i));
+                int advance = advances[glyph];
+                g.drawImage(sheet, x, y, x + advance, y + height,
+                        offsets[glyph], 0, offsets[glyph] + advance, height, null);
+                x += advance;
+            }
+        }
+    }
 
-        writer.write(null, new IIOImage(image, null, null), param);
+    private Workspace borrowWorkspace() throws IOException {
+        Workspace workspace = workspaces.poll();
+        return workspace != null ? workspace : new Workspace();
+    }
 
-        ios.close();
-        writer.dispose();
+    // JPEG writer, output buffer and scaling rasters reused from one decode to the next.
+    // A workspace is held for the length of an admitted decode, so the pool never grows
+    // past the admission limit. Buffers beyond the retention caps are used once and dropped.
+    private static final class Workspace {
+
+        private static final int OUTPUT_BUFFER_SIZE = 256 * 1024;
+        private static final int MAX_RETAINED_OUTPUT = 4 * 1024 * 1024;
+        private static final long MAX_SCRATCH_PIXELS = 4_000_000;
+
+        private final ImageWriter writer;
+        private final ImageWriteParam writeParam;
+        private final BufferedImage[] scratch = new BufferedImage[2];
+        private ByteArrayOutputStream output = new ByteArrayOutputStream(OUTPUT_BUFFER_SIZE);
+
+        Workspace() throws IOException {
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
+            if (!writers.hasNext()) {
+                throw new IOException("No JPEG writer available");
+            }
+            writer = writers.next();
+            writeParam = writer.getDefaultWriteParam();
+            writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        }
+
+        ByteArrayOutputStream output() {
+            if (output.size() > MAX_RETAINED_OUTPUT) {
+                output = new ByteArrayOutputStream(OUTPUT_BUFFER_SIZE);
+            } else {
+                output.reset();
+            }
+            return output;
+        }
 
-        return baos.toByteArray();
+        // A width x height view over a retained raster, grown as needed. Every step
+        // draws over the whole view, so stale pixels from earlier use never show through.
+        BufferedImage scratch(int index, int width, int height) {
+            BufferedImage buffer = scratch[index];
+            if (buffer == null || buffer.getWidth() < width || buffer.getHeight() < height) {
+                int bufferWidth = buffer == null ? width : Math.max(width, buffer.getWidth());
+                int bufferHeight = buffer == null ? height : Math.max(height, buffer.getHeight());
+                if ((long) bufferWidth * bufferHeight > MAX_SCRATCH_PIXELS) {
+                    return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                }
+                buffer = new BufferedImage(bufferWidth, bufferHeight, BufferedImage.TYPE_INT_RGB);
+                scratch[index] = buffer;
+            }
+            return buffer.getSubimage(0, 0, width, height);
+        }
     }
 }
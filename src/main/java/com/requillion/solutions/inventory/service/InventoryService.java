@@ -18,6 +18,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -33,6 +34,7 @@ public class InventoryService {
     private final ItemRepository itemRepository;
     private final InvitationRepository invitationRepository;
     private final MemberService memberService;
+    private final InventoryVersionService inventoryVersionService;
 
     public List<InventoryWithMeta> getInventories(@NonNull User user) {
         List<InventoryWithMeta> result = new ArrayList<>();
@@ -183,6 +185,7 @@ public class InventoryService {
 
         inventory = inventoryRepository.save(inventory);
         LoggerUtil.info(log, "Updated inventory %s", inventory.getId());
+        inventoryVersionService.bump(inventoryId);
 
         return inventory;
     }
@@ -214,6 +217,14 @@ public class InventoryService {
         return canUserViewInventory(user, inventory);
     }
 
+    // A role or status change alters everything the user can see in the inventory
+    public boolean hasMembershipChangedSince(@NonNull User user, @NonNull Inventory inventory,
+                                             @NonNull Instant since) {
+        return memberRepository.findByInventoryAndUser(inventory, user)
+                .map(m -> m.getUpdatedAt().isAfter(since))
+                .orElse(false);
+    }
+
     public boolean canUserEditInventory(@NonNull User user, @NonNull Inventory inventory) {
         if (inventory.getOwner().equals(user)) {
             return true;
@@ -0,0 +1,65 @@
+package com.requillion.solutions.inventory.service;
+
+import com.requillion.solutions.inventory.model.User;
+import com.requillion.solutions.inventory.repository.InventoryRepository;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * A per-inventory counter that moves whenever anything shown in the inventory's lists
+ * changes: items, claims, categories, members or the inventory itself. Mutations call
+ * bump; the increment runs once per inventory just before the transaction commits, so
+ * the new version never becomes visible without the data it stands for. List endpoints
+ * use it, with the caller's access, as their ETag.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class InventoryVersionService {
+
+    private final InventoryRepository inventoryRepository;
+
+    public void bump(@NonNull UUID inventoryId) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingBumps pending) {
+                pending.inventoryIds.add(inventoryId);
+                return;
+            }
+        }
+        PendingBumps pending = new PendingBumps();
+        pending.inventoryIds.add(inventoryId);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    // Empty when the inventory does not exist or the user has no access to it; the caller
+    // then takes the normal path, which reports that properly. Lists include the caller's
+    // own claim flags, so the tag is per user as well as per role.
+    @Transactional(readOnly = true)
+    public Optional<String> getListETag(@NonNull User user, @NonNull UUID inventoryId) {
+        return inventoryRepository.findVersion(inventoryId, user.getId())
+                .filter(version -> version.getAccess() != null)
+                .map(version -> version.getVersion() + "-" + version.getAccess() + "-" + user.getId());
+    }
+
+    // Ids are kept sorted so transactions touching several inventories lock them in the same order
+    private class PendingBumps implements TransactionSynchronization {
+
+        private final Set<UUID> inventoryIds = new TreeSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            inventoryIds.forEach(inventoryRepository::incrementVersion);
+        }
+    }
+}
@@ -33,6 +33,7 @@ public class InvitationService {
     private final InvitationRepository invitationRepository;
     private final InventoryRepository inventoryRepository;
     private final InventoryMemberRepository memberRepository;
+    private final InventoryVersionService inventoryVersionService;
     private final EmailService emailService;
 
     public Invitation createInvitation(@NonNull User user, @NonNull UUID inventoryId,
@@ -138,6 +139,7 @@ public class InvitationService {
 
         LoggerUtil.info(log, "User %s accepted invitation %s to inventory %s with role %s",
                 user.getId(), invitation.getId(), inventory.getId(), invitation.getRole());
+        inventoryVersionService.bump(inventory.getId());
 
         // Send welcome email
         emailService.sendWelcomeEmail(member, inventory.getName());
@@ -0,0 +1,121 @@
+package com.requillion.solutions.inventory.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.requillion.solutions.inventory.dto.ItemWithThumbnailDTO;
+import com.requillion.solutions.inventory.dto.ThumbnailMode;
+import com.requillion.solutions.inventory.exception.NotAuthorizedException;
+import com.requillion.solutions.inventory.exception.NotFoundException;
+import com.requillion.solutions.inventory.model.Inventory;
+import com.requillion.solutions.inventory.model.User;
+import com.requillion.solutions.inventory.repository.InventoryRepository;
+import com.requillion.solutions.inventory.repository.ItemRepository;
+import com.requillion.solutions.inventory.util.LoggerUtil;
+import jakarta.persistence.EntityManager;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Streams a whole inventory listing as one JSON array without holding it in memory. Rows
+ * come from a forward-only projection stream and are written one by one with a
+ * JsonGenerator; thumbnails are fetched a batch at a time and the persistence context is
+ * cleared after each batch, so memory per request stays flat however many items there are.
+ * Access is checked before the response starts, the stream itself runs on the MVC async
+ * thread in its own read-only transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemExportService {
+
+    // Rows per thumbnail lookup and per flush to the client
+    private static final int BATCH_SIZE = 100;
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryService inventoryService;
+    private final ItemRepository itemRepository;
+    private final ItemImageService itemImageService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    public StreamingResponseBody streamItems(@NonNull User user, @NonNull UUID inventoryId,
+                                             @NonNull ThumbnailMode thumbnailMode) {
+        Inventory inventory = inventoryRepository.findById(inventoryId)
+                .orElseThrow(() -> new NotFoundException(
+                        "Inventory not found",
+                        "Inventory: %s", inventoryId));
+
+        if (!inventoryService.canUserViewInventory(user, inventory)) {
+            throw new NotAuthorizedException(
+                    "You do not have access to this inventory",
+                    "Inventory: %s, User: %s", inventoryId, user.getId());
+        }
+
+        boolean canEdit = inventoryService.canUserEditInventory(user, inventory);
+        UUID userId = user.getId();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        return outputStream -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ItemRepository.ItemListRow> rows = canEdit
+                    ? itemRepository.streamListRowsByInventory(userId, inventoryId)
+                    : itemRepository.streamVisibleListRowsByInventory(userId, inventoryId)) {
+                int written = write(rows.iterator(), thumbnailMode, outputStream);
+                LoggerUtil.info(log, "Streamed %d items from inventory %s", written, inventoryId);
+            } catch (IOException e) {
+                // Most often the client went away mid-download
+                LoggerUtil.warn(log, "Streaming items from inventory %s stopped: %s", inventoryId, e.getMessage());
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private int write(Iterator<ItemRepository.ItemListRow> rows, ThumbnailMode thumbnailMode,
+                      OutputStream outputStream) throws IOException {
+        int written = 0;
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.writeStartArray();
+            List<ItemRepository.ItemListRow> batch = new ArrayList<>(BATCH_SIZE);
+            while (rows.hasNext()) {
+                batch.add(rows.next());
+                if (batch.size() == BATCH_SIZE || !rows.hasNext()) {
+                    writeBatch(batch, thumbnailMode, generator);
+                    written += batch.size();
+                    batch.clear();
+                }
+            }
+            generator.writeEndArray();
+        }
+        return written;
+    }
+
+    private void writeBatch(List<ItemRepository.ItemListRow> batch, ThumbnailMode thumbnailMode,
+                            JsonGenerator generator) throws IOException {
+        ItemImageService.ListThumbnails thumbnails = itemImageService.getListThumbnails(
+                batch.stream().filter(ItemRepository.ItemListRow::getHasImage).map(ItemRepository.ItemListRow::getId).toList(),
+                thumbnailMode);
+        for (ItemRepository.ItemListRow row : batch) {
+            generator.writeObject(ItemWithThumbnailDTO.toDTO(row, thumbnails.data().get(row.getId()),
+                    thumbnails.versions().get(row.getId())));
+        }
+        generator.flush();
+        // Thumbnail rows loaded for this batch are not needed again
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,298 @@
+package com.requillion.solutions.inventory.service;
+
+import com.requillion.solutions.inventory.dto.ThumbnailMode;
+import com.requillion.solutions.inventory.model.ImageRendition;
+import com.requillion.solutions.inventory.model.Item;
+import com.requillion.solutions.inventory.model.ItemImage;
+import com.requillion.solutions.inventory.repository.ItemImageRepository;
+import com.requillion.solutions.inventory.storage.BlobStore;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ItemImageService {
+
+    private final ItemImageRepository itemImageRepository;
+    private final BlobStore blobStore;
+    private final BlobCollectorService blobCollectorService;
+
+    // Bytes already written to the blob store, ready to be attached to an item
+    public record StoredContent(String contentHash, long sizeBytes) {}
+
+    // A pipeline's renditions once written to the blob store
+    public record StoredRenditions(StoredContent master, StoredContent image, StoredContent thumbnail) {}
+
+    private interface BlobWrite {
+        String put() throws IOException;
+    }
+
+    // Content is written before the transaction that attaches it opens, so a slow store never
+    // holds a connection and each touch commits in its own short transaction
+    @Transactional(propagation = Propagation.NEVER)
+    public StoredContent putContent(@NonNull byte[] data) {
+        try {
+            return new StoredContent(putAndTouch(() -> blobStore.put(data)), data.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store image content", e);
+        }
+    }
+
+    @Transactional(propagation = Propagation.NEVER)
+    public StoredContent putContent(@NonNull Resource data) {
+        try {
+            return new StoredContent(putAndTouch(() -> blobStore.put(data)), data.contentLength());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store image content", e);
+        }
+    }
+
+    // Stores skip the write when the blob is already there, so a sweep may be deleting that copy
+    // right now. The touch waits for any such sweep, then the blob is written again if it went.
+    // The touch also makes every new blob a candidate, so content staged by a transaction that
+    // rolls back is collected like any other
+    private String putAndTouch(BlobWrite write) throws IOException {
+        String contentHash = write.put();
+        blobCollectorService.touch(contentHash);
+        if (!blobStore.exists(contentHash)) {
+            write.put();
+        }
+        return contentHash;
+    }
+
+    @Transactional(propagation = Propagation.NEVER)
+    public StoredRenditions putRenditions(@NonNull ImageService.ProcessedImage renditions) {
+        return new StoredRenditions(putContent(renditions.master()), putContent(renditions.image()),
+                putContent(renditions.thumbnail()));
+    }
+
+    public void storeImage(@NonNull Item item, @NonNull ImageRendition rendition, @NonNull StoredContent content) {
+        attach(item, rendition, content, null, null);
+    }
+
+    // Badged renditions record the reference number they were drawn with
+    public void storeImage(@NonNull Item item, @NonNull ImageRendition rendition, @NonNull StoredContent content,
+                           int referenceNumber) {
+        attach(item, rendition, content, referenceNumber, null);
+    }
+
+    // MASTER and THUMBNAIL record the upload they were built from so repeats can reuse them
+    public void storeProcessedImage(@NonNull Item item, @NonNull ImageRendition rendition,
+                                    @NonNull StoredContent content, @NonNull String sourceHash) {
+        attach(item, rendition, content, null, sourceHash);
+    }
+
+    // Points the item at the MASTER and THUMBNAIL already built from an identical upload,
+    // sharing their blobs; returns the item they were built for, empty if no complete set exists
+    public Optional<Item> reuseProcessedImage(@NonNull Item item, @NonNull String sourceHash) {
+        Optional<ItemImage> master = itemImageRepository.findFirstBySourceHashAndRendition(
+                sourceHash, ImageRendition.MASTER);
+        Optional<ItemImage> thumbnail = master.flatMap(m ->
+                itemImageRepository.findByItemAndRendition(m.getItem(), ImageRendition.THUMBNAIL))
+                .filter(t -> sourceHash.equals(t.getSourceHash()));
+        if (master.isEmpty() || thumbnail.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Keeps the shared blobs from being collected before this transaction commits
+        blobCollectorService.touch(master.get().getContentHash());
+        blobCollectorService.touch(thumbnail.get().getContentHash());
+
+        attach(item, ImageRendition.MASTER,
+                new StoredContent(master.get().getContentHash(), master.get().getSizeBytes()), null, sourceHash);
+        attach(item, ImageRendition.THUMBNAIL,
+                new StoredContent(thumbnail.get().getContentHash(), thumbnail.get().getSizeBytes()), null, sourceHash);
+        // The badged IMAGE carries this item's own number and is drawn on first request
+        deleteImage(item, ImageRendition.IMAGE);
+        deleteScaledImages(item);
+        deleteImage(item, ImageRendition.ORIGINAL);
+        return Optional.of(master.get().getItem());
+    }
+
+    // For staged uploads that ended up not being attached
+    public void releaseContent(@NonNull StoredContent content) {
+        releaseBlob(content.contentHash());
+    }
+
+    public ItemImageRepository.StorageUsage getStorageUsage() {
+        return itemImageRepository.getStorageUsage();
+    }
+
+    public Optional<Resource> getImage(@NonNull Item item, @NonNull ImageRendition rendition) {
+        return itemImageRepository.findByItemAndRendition(item, rendition)
+                .map(itemImage -> openBlob(itemImage.getContentHash()));
+    }
+
+    // Bytes of one rendition along with the validators used for conditional requests
+    public record ImageContent(String contentHash, Instant lastModified, Resource resource) {}
+
+    // Empty when the rendition is missing or carries a badge for a different reference number
+    public Optional<ImageContent> getImageContent(@NonNull Item item, @NonNull ImageRendition rendition, int width) {
+        return itemImageRepository.findByItemAndRenditionAndWidth(item, rendition, width)
+                .filter(itemImage -> itemImage.getReferenceNumber() == null
+                        || itemImage.getReferenceNumber().equals(item.getReferenceNumber()))
+                .map(itemImage -> new ImageContent(itemImage.getContentHash(), itemImage.getUpdatedAt(),
+                        openBlob(itemImage.getContentHash())));
+    }
+
+    public ImageContent storeRendition(@NonNull Item item, @NonNull ImageRendition rendition, int width,
+                                       @NonNull StoredContent content, Integer referenceNumber) {
+        String previousHash = itemImageRepository.findByItemAndRenditionAndWidth(item, rendition, width)
+                .map(ItemImage::getContentHash)
+                .orElse(null);
+        itemImageRepository.upsertRendition(item.getId(), rendition.name(), width,
+                content.contentHash(), content.sizeBytes(), referenceNumber);
+        if (previousHash != null && !previousHash.equals(content.contentHash())) {
+            releaseBlob(previousHash);
+        }
+        return new ImageContent(content.contentHash(), Instant.now(), openBlob(content.contentHash()));
+    }
+
+    // Scaled renditions are derived from the current MASTER (or legacy IMAGE) and must go when it is replaced
+    public void deleteScaledImages(@NonNull Item item) {
+        List<ItemImage> scaled = itemImageRepository.findByItemAndRenditionIn(item,
+                List.of(ImageRendition.SCALED, ImageRendition.SCALED_THUMBNAIL));
+        itemImageRepository.deleteAll(scaled);
+        scaled.stream()
+                .map(ItemImage::getContentHash)
+                .distinct()
+                .forEach(this::releaseBlob);
+    }
+
+    public Optional<String> getContentHash(@NonNull Item item, @NonNull ImageRendition rendition) {
+        return itemImageRepository.findByItemAndRendition(item, rendition)
+                .map(ItemImage::getContentHash);
+    }
+
+    public Optional<String> getSourceHash(@NonNull Item item, @NonNull ImageRendition rendition) {
+        return itemImageRepository.findByItemAndRendition(item, rendition)
+                .map(ItemImage::getSourceHash);
+    }
+
+    public Optional<byte[]> getImageBytes(@NonNull Item item, @NonNull ImageRendition rendition) {
+        return getImage(item, rendition).map(resource -> {
+            try {
+                return resource.getContentAsByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read " + rendition + " for item " + item.getId(), e);
+            }
+        });
+    }
+
+    public void deleteImage(@NonNull Item item, @NonNull ImageRendition rendition) {
+        itemImageRepository.findByItemAndRendition(item, rendition).ifPresent(itemImage -> {
+            itemImageRepository.delete(itemImage);
+            releaseBlob(itemImage.getContentHash());
+        });
+    }
+
+    // Thumbnails are fetched in one batch so list views never load full images
+    public Map<UUID, byte[]> getThumbnails(@NonNull Collection<Item> items) {
+        return loadThumbnails(idsWithImages(items));
+    }
+
+    // Thumbnails for a list response: the bytes when inlined, the content hash that versions
+    // each thumbnail URL when linked, nothing when left out. Only INLINE reads any blob.
+    public record ListThumbnails(Map<UUID, byte[]> data, Map<UUID, String> versions) {}
+
+    // Takes the ids of the listed items that have an image
+    public ListThumbnails getListThumbnails(@NonNull Collection<UUID> itemIds, @NonNull ThumbnailMode mode) {
+        List<UUID> distinctIds = itemIds.stream().distinct().toList();
+        return switch (mode) {
+            case INLINE -> new ListThumbnails(loadThumbnails(distinctIds), Map.of());
+            case URL -> new ListThumbnails(Map.of(), loadThumbnailHashes(distinctIds));
+            case NONE -> new ListThumbnails(Map.of(), Map.of());
+        };
+    }
+
+    // Content hashes of the items' thumbnails, read from the rows alone without touching any blob
+    public Map<UUID, String> getThumbnailHashes(@NonNull Collection<Item> items) {
+        return loadThumbnailHashes(idsWithImages(items));
+    }
+
+    private List<UUID> idsWithImages(Collection<Item> items) {
+        return items.stream()
+                .filter(Item::getHasImage)
+                .map(Item::getId)
+                .distinct()
+                .toList();
+    }
+
+    private Map<UUID, byte[]> loadThumbnails(List<UUID> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+
+        List<ItemImage> thumbnails = itemImageRepository.findByItemIdInAndRendition(itemIds, ImageRendition.THUMBNAIL);
+        Map<String, byte[]> blobs;
+        try {
+            blobs = blobStore.getAll(thumbnails.stream().map(ItemImage::getContentHash).collect(Collectors.toSet()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load thumbnails", e);
+        }
+
+        Map<UUID, byte[]> result = new HashMap<>();
+        for (ItemImage thumbnail : thumbnails) {
+            byte[] data = blobs.get(thumbnail.getContentHash());
+            if (data != null) {
+                result.put(thumbnail.getItem().getId(), data);
+            }
+        }
+        return result;
+    }
+
+    private Map<UUID, String> loadThumbnailHashes(List<UUID> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        return itemImageRepository.findByItemIdInAndRendition(itemIds, ImageRendition.THUMBNAIL).stream()
+                .collect(Collectors.toMap(thumbnail -> thumbnail.getItem().getId(), ItemImage::getContentHash));
+    }
+
+    private void attach(Item item, ImageRendition rendition, StoredContent content, Integer referenceNumber,
+                        String sourceHash) {
+        ItemImage itemImage = itemImageRepository.findByItemAndRendition(item, rendition)
+                .orElseGet(() -> {
+                    ItemImage newImage = new ItemImage();
+                    newImage.setItem(item);
+                    newImage.setRendition(rendition);
+                    return newImage;
+                });
+        String previousHash = itemImage.getContentHash();
+        itemImage.setContentHash(content.contentHash());
+        itemImage.setSizeBytes(content.sizeBytes());
+        itemImage.setReferenceNumber(referenceNumber);
+        itemImage.setSourceHash(sourceHash);
+        itemImageRepository.save(itemImage);
+
+        if (previousHash != null && !previousHash.equals(content.contentHash())) {
+            releaseBlob(previousHash);
+        }
+    }
+
+    private Resource openBlob(String contentHash) {
+        try {
+            return blobStore.get(contentHash);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open blob " + contentHash, e);
+        }
+    }
+
+    // Blobs are shared by content; the collector deletes this one later if nothing references it by then
+    private void releaseBlob(String contentHash) {
+        blobCollectorService.touch(contentHash);
+    }
+}
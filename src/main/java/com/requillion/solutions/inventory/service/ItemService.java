@@ -1,9 +1,13 @@
 package com.requillion.solutions.inventory.service;
 
 import com.requillion.solutions.inventory.dto.InventoryEventDTO;
+import com.requillion.solutions.inventory.dto.ItemChangesDTO;
+import com.requillion.solutions.inventory.dto.ItemCursor;
+import com.requillion.solutions.inventory.dto.ItemListDTO;
 import com.requillion.solutions.inventory.dto.ItemRequestDTO;
 import com.requillion.solutions.inventory.dto.ItemResponseDTO;
 import com.requillion.solutions.inventory.dto.ItemWithThumbnailDTO;
+import com.requillion.solutions.inventory.dto.ThumbnailMode;
 import com.requillion.solutions.inventory.exception.BadInputException;
 import com.requillion.solutions.inventory.exception.NotAuthorizedException;
 import com.requillion.solutions.inventory.exception.NotFoundException;
@@ -11,16 +15,28 @@ import com.requillion.solutions.inventory.model.*;
 import com.requillion.solutions.inventory.repository.CategoryRepository;
 import com.requillion.solutions.inventory.repository.InventoryRepository;
 import com.requillion.solutions.inventory.repository.ItemClaimRepository;
+import com.requillion.solutions.inventory.repository.ItemImageRepository;
 import com.requillion.solutions.inventory.repository.ItemRepository;
 import com.requillion.solutions.inventory.util.LoggerUtil;
+import jakarta.annotation.PostConstruct;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -29,15 +45,45 @@ import java.util.stream.Collectors;
 @Transactional
 public class ItemService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Value("${app.item-changes.overlap:PT10S}")
+    private Duration changesOverlap;
+
+    // Items in reference number order; next is where the following page starts, null on the last
+    public record ItemPage(List<Item> items, ItemCursor next) {}
+
     private final ItemRepository itemRepository;
     private final InventoryRepository inventoryRepository;
     private final CategoryRepository categoryRepository;
     private final InventoryService inventoryService;
-    private final ImageService imageService;
     private final ItemClaimRepository claimRepository;
+    private final ItemImageRepository itemImageRepository;
+    private final ItemImageService itemImageService;
     private final InventoryEventService eventService;
+    private final InventoryVersionService inventoryVersionService;
+    private final ImageService imageService;
+    private final ImageProcessingService imageProcessingService;
+    private final ReferenceNumberService referenceNumberService;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
 
     public List<Item> getItems(@NonNull User user, @NonNull UUID inventoryId) {
+        return getItems(user, inventoryId, ItemCursor.START, null).items();
+    }
+
+    // One page of items after the cursor; a null limit returns everything that follows
+    public ItemPage getItems(@NonNull User user, @NonNull UUID inventoryId, @NonNull ItemCursor after,
+                             Integer limit) {
         Inventory inventory = inventoryRepository.findById(inventoryId)
                 .orElseThrow(() -> new NotFoundException(
                         "Inventory not found",
@@ -50,23 +96,13 @@ public class ItemService {
         }
 
         boolean canEdit = inventoryService.canUserEditInventory(user, inventory);
-        List<Item> items;
-        if (canEdit) {
-            items = itemRepository.findByInventoryAndIsDeletedFalseOrderByReferenceNumberAsc(inventory);
-        } else {
-            items = itemRepository.findByInventoryAndIsDeletedFalseOrderByReferenceNumberAsc(inventory);
-            Set<UUID> userAssignedItemIds = claimRepository.findByItemIdIn(
-                    items.stream().filter(i -> i.getIsCollected()).map(Item::getId).toList()
-            ).stream()
-                    .filter(c -> c.getStatus() == ClaimStatus.ASSIGNED && c.getUser().equals(user))
-                    .map(c -> c.getItem().getId())
-                    .collect(Collectors.toSet());
-            items = items.stream()
-                    .filter(i -> !i.getIsCollected() || userAssignedItemIds.contains(i.getId()))
-                    .toList();
-        }
+        List<Item> items = canEdit
+                ? itemRepository.findPageByInventory(inventory,
+                        after.referenceNumber(), after.itemId(), pageLimit(limit))
+                : itemRepository.findVisiblePageByInventory(inventory, user,
+                        after.referenceNumber(), after.itemId(), pageLimit(limit));
         LoggerUtil.info(log, "Retrieved %d items from inventory %s", items.size(), inventoryId);
-        return items;
+        return new ItemPage(items, nextCursor(items, limit, ItemCursor::after));
     }
 
     public Item getItem(@NonNull User user, @NonNull UUID inventoryId, @NonNull UUID itemId) {
@@ -87,10 +123,10 @@ public class ItemService {
                         "Item: %s, Inventory: %s", itemId, inventoryId));
     }
 
+    // original is the upload already staged by the caller, null for an item without an image
     public Item createItem(@NonNull User user, @NonNull UUID inventoryId,
-                           @NonNull ItemRequestDTO dto, byte[] imageData) {
-        // Use pessimistic lock to prevent race condition on reference number generation
-        Inventory inventory = inventoryRepository.findByIdWithLock(inventoryId)
+                           @NonNull ItemRequestDTO dto, ItemImageService.StoredContent original) {
+        Inventory inventory = inventoryRepository.findById(inventoryId)
                 .orElseThrow(() -> new NotFoundException(
                         "Inventory not found",
                         "Inventory: %s", inventoryId));
@@ -101,33 +137,24 @@ public class ItemService {
                     "Inventory: %s, User: %s", inventoryId, user.getId());
         }
 
-        // Generate reference number
-        Integer maxRef = itemRepository.findMaxReferenceNumber(inventory);
-        int newRefNumber = (maxRef != null ? maxRef : 0) + 1;
+        int newRefNumber = referenceNumberService.nextReferenceNumber(inventory, null);
 
         Item item = new Item();
         item.setInventory(inventory);
         item.setReferenceNumber(newRefNumber);
         item.setDescription(dto.description());
 
-        // Process image if provided
-        if (imageData != null && imageData.length > 0) {
-            try {
-                item.setImage(imageService.compressImage(imageData, newRefNumber));
-                item.setThumbnail(imageService.createThumbnail(imageData));
-                LoggerUtil.debug(log, "Processed image for item: original=%d, compressed=%d, thumbnail=%d",
-                        imageData.length, item.getImage().length, item.getThumbnail().length);
-            } catch (IOException e) {
-                throw new BadInputException(
-                        "Failed to process image",
-                        "Error: %s", e.getMessage());
-            }
-        }
-
         item = itemRepository.save(item);
+
+        // Renditions are generated in the background once this transaction commits
+        if (original != null) {
+            imageProcessingService.submit(item, original);
+        }
         LoggerUtil.info(log, "Created item %s (#%d) in inventory %s",
                 item.getId(), item.getReferenceNumber(), inventoryId);
 
+        inventoryVersionService.bump(inventoryId);
+
         eventService.publishEvent(InventoryEventDTO.itemCreated(inventoryId, item.getId()));
 
         return item;
@@ -155,13 +182,14 @@ public class ItemService {
         item = itemRepository.save(item);
 
         LoggerUtil.info(log, "Updated item %s", item.getId());
+        inventoryVersionService.bump(inventoryId);
         eventService.publishEvent(InventoryEventDTO.itemUpdated(inventoryId, item.getId()));
 
         return item;
     }
 
     public Item updateItemImage(@NonNull User user, @NonNull UUID inventoryId,
-                                @NonNull UUID itemId, @NonNull byte[] imageData) {
+                                @NonNull UUID itemId, @NonNull ItemImageService.StoredContent original) {
         Inventory inventory = inventoryRepository.findById(inventoryId)
                 .orElseThrow(() -> new NotFoundException(
                         "Inventory not found",
@@ -178,17 +206,10 @@ public class ItemService {
                         "Item not found",
                         "Item: %s, Inventory: %s", itemId, inventoryId));
 
-        try {
-            item.setImage(imageService.compressImage(imageData, item.getReferenceNumber()));
-            item.setThumbnail(imageService.createThumbnail(imageData));
-        } catch (IOException e) {
-            throw new BadInputException(
-                    "Failed to process image",
-                    "Error: %s", e.getMessage());
-        }
-
-        item = itemRepository.save(item);
-        LoggerUtil.info(log, "Updated image for item %s", item.getId());
+        // The current renditions keep being served until the new ones are ready
+        imageProcessingService.submit(item, original);
+        LoggerUtil.info(log, "Queued new image for item %s", item.getId());
+        inventoryVersionService.bump(inventoryId);
         eventService.publishEvent(InventoryEventDTO.itemUpdated(inventoryId, item.getId()));
 
         return item;
@@ -216,6 +237,7 @@ public class ItemService {
         itemRepository.save(item);
 
         LoggerUtil.info(log, "Soft-deleted item %s from inventory %s", itemId, inventoryId);
+        inventoryVersionService.bump(inventoryId);
         eventService.publishEvent(InventoryEventDTO.itemDeleted(inventoryId, itemId));
     }
 
@@ -240,6 +262,7 @@ public class ItemService {
         itemRepository.save(item);
 
         LoggerUtil.info(log, "Undeleted item %s from inventory %s", itemId, inventoryId);
+        inventoryVersionService.bump(inventoryId);
         eventService.publishEvent(InventoryEventDTO.itemUndeleted(inventoryId, itemId));
     }
 
@@ -280,6 +303,7 @@ public class ItemService {
         itemRepository.save(item);
 
         LoggerUtil.info(log, "Collected item %s from inventory %s", itemId, inventoryId);
+        inventoryVersionService.bump(inventoryId);
         eventService.publishEvent(InventoryEventDTO.itemCollected(inventoryId, itemId));
     }
 
@@ -304,36 +328,45 @@ public class ItemService {
         itemRepository.save(item);
 
         LoggerUtil.info(log, "Uncollected item %s from inventory %s", itemId, inventoryId);
+        inventoryVersionService.bump(inventoryId);
         eventService.publishEvent(InventoryEventDTO.itemUncollected(inventoryId, itemId));
     }
 
-    public byte[] getItemImage(@NonNull User user, @NonNull UUID inventoryId, @NonNull UUID itemId) {
-        Item item = getItem(user, inventoryId, itemId);
-
-        if (item.getImage() == null || item.getImage().length == 0) {
-            throw new NotFoundException(
-                    "Item has no image",
-                    "Item: %s", itemId);
-        }
-
-        return item.getImage();
+    // A missing rendition is drawn on the request thread, so no connection is held while it renders
+    @Transactional(propagation = Propagation.NEVER)
+    public ItemImageService.ImageContent getItemImage(@NonNull User user, @NonNull UUID inventoryId,
+                                                      @NonNull UUID itemId, Integer width) {
+        return getRendition(user, inventoryId, itemId, imageRendition(width), "Item has no image");
     }
 
-    public byte[] getItemThumbnail(@NonNull User user, @NonNull UUID inventoryId, @NonNull UUID itemId) {
-        Item item = getItem(user, inventoryId, itemId);
+    @Transactional(propagation = Propagation.NEVER)
+    public ItemImageService.ImageContent getItemThumbnail(@NonNull User user, @NonNull UUID inventoryId,
+                                                          @NonNull UUID itemId, Integer size) {
+        return getRendition(user, inventoryId, itemId, thumbnailRendition(size), "Item has no thumbnail");
+    }
 
-        if (item.getThumbnail() == null || item.getThumbnail().length == 0) {
-            throw new NotFoundException(
-                    "Item has no thumbnail",
-                    "Item: %s", itemId);
-        }
+    // Lets conditional requests be answered without loading the item or the image bytes;
+    // empty if the item is not visible or the rendition has not been generated yet
+    public Optional<ItemImage> findItemImageVersion(@NonNull User user, @NonNull UUID inventoryId,
+                                                    @NonNull UUID itemId, Integer width) {
+        RenditionKey key = imageRendition(width);
+        return itemImageRepository.findVisibleImage(user, inventoryId, itemId, key.rendition(), key.width());
+    }
 
-        return item.getThumbnail();
+    public Optional<ItemImage> findItemThumbnailVersion(@NonNull User user, @NonNull UUID inventoryId,
+                                                        @NonNull UUID itemId, Integer size) {
+        RenditionKey key = thumbnailRendition(size);
+        return itemImageRepository.findVisibleImage(user, inventoryId, itemId, key.rendition(), key.width());
     }
 
     // Category-based methods
 
     public List<Item> getItemsByCategory(@NonNull User user, @NonNull UUID inventoryId, @NonNull UUID categoryId) {
+        return getItemsByCategory(user, inventoryId, categoryId, ItemCursor.START, null).items();
+    }
+
+    public ItemPage getItemsByCategory(@NonNull User user, @NonNull UUID inventoryId, @NonNull UUID categoryId,
+                                       @NonNull ItemCursor after, Integer limit) {
         Inventory inventory = inventoryRepository.findById(inventoryId)
                 .orElseThrow(() -> new NotFoundException(
                         "Inventory not found",
@@ -351,29 +384,19 @@ public class ItemService {
                         "Category: %s, Inventory: %s", categoryId, inventoryId));
 
         boolean canEdit = inventoryService.canUserEditInventory(user, inventory);
-        List<Item> items;
-        if (canEdit) {
-            items = itemRepository.findByCategoryOrderByReferenceNumberAsc(category);
-        } else {
-            // Non-editors see non-deleted, non-collected items PLUS collected items assigned to them
-            items = itemRepository.findByCategoryAndIsDeletedFalseOrderByReferenceNumberAsc(category);
-            Set<UUID> userAssignedItemIds = claimRepository.findByItemIdIn(
-                    items.stream().filter(i -> i.getIsCollected()).map(Item::getId).toList()
-            ).stream()
-                    .filter(c -> c.getStatus() == ClaimStatus.ASSIGNED && c.getUser().equals(user))
-                    .map(c -> c.getItem().getId())
-                    .collect(Collectors.toSet());
-            items = items.stream()
-                    .filter(i -> !i.getIsCollected() || userAssignedItemIds.contains(i.getId()))
-                    .toList();
-        }
+        checkCategoryVisible(category, canEdit, user);
+        List<Item> items = canEdit
+                ? itemRepository.findPageByCategory(category,
+                        after.referenceNumber(), after.itemId(), pageLimit(limit))
+                : itemRepository.findVisiblePageByCategory(category, user,
+                        after.referenceNumber(), after.itemId(), pageLimit(limit));
         LoggerUtil.info(log, "Retrieved %d items from category %s (canEdit=%s)", items.size(), categoryId, canEdit);
-        return items;
+        return new ItemPage(items, nextCursor(items, limit, ItemCursor::after));
     }
 
-    public Item createItemInCategory(@NonNull User user, @NonNull UUID inventoryId,
-                                     @NonNull UUID categoryId, @NonNull ItemRequestDTO dto, byte[] imageData) {
-        Inventory inventory = inventoryRepository.findByIdWithLock(inventoryId)
+    public Item createItemInCategory(@NonNull User user, @NonNull UUID inventoryId, @NonNull UUID categoryId,
+                                     @NonNull ItemRequestDTO dto, ItemImageService.StoredContent original) {
+        Inventory inventory = inventoryRepository.findById(inventoryId)
                 .orElseThrow(() -> new NotFoundException(
                         "Inventory not found",
                         "Inventory: %s", inventoryId));
@@ -389,9 +412,8 @@ public class ItemService {
                         "Category not found",
                         "Category: %s, Inventory: %s", categoryId, inventoryId));
 
-        // Generate reference number within category
-        Integer maxRef = itemRepository.findMaxReferenceNumberByCategory(category);
-        int newRefNumber = (maxRef != null ? maxRef : 0) + 1;
+        // Reference numbers are allocated within the category
+        int newRefNumber = referenceNumberService.nextReferenceNumber(inventory, category);
 
         Item item = new Item();
         item.setInventory(inventory);
@@ -399,74 +421,67 @@ public class ItemService {
         item.setReferenceNumber(newRefNumber);
         item.setDescription(dto.description());
 
-        // Process image if provided
-        if (imageData != null && imageData.length > 0) {
-            try {
-                item.setImage(imageService.compressImage(imageData, newRefNumber));
-                item.setThumbnail(imageService.createThumbnail(imageData));
-                LoggerUtil.debug(log, "Processed image for item: original=%d, compressed=%d, thumbnail=%d",
-                        imageData.length, item.getImage().length, item.getThumbnail().length);
-            } catch (IOException e) {
-                throw new BadInputException(
-                        "Failed to process image",
-                        "Error: %s", e.getMessage());
-            }
-        }
-
         item = itemRepository.save(item);
+
+        // Renditions are generated in the background once this transaction commits
+        if (original != null) {
+            imageProcessingService.submit(item, original);
+        }
         LoggerUtil.info(log, "Created item %s (#%d) in category %s",
                 item.getId(), item.getReferenceNumber(), categoryId);
 
+        inventoryVersionService.bump(inventoryId);
+
         eventService.publishEvent(InventoryEventDTO.itemCreated(inventoryId, item.getId()));
 
         return item;
     }
 
-    public List<ItemWithThumbnailDTO> getItemsWithThumbnailsByCategory(@NonNull User user,
-            @NonNull UUID inventoryId, @NonNull UUID categoryId) {
-        List<Item> items = getItemsByCategory(user, inventoryId, categoryId);
+    public ItemListDTO getItemsWithThumbnailsByCategory(@NonNull User user,
+            @NonNull UUID inventoryId, @NonNull UUID categoryId, @NonNull ThumbnailMode thumbnailMode,
+            @NonNull ItemCursor after, Integer limit) {
+        Inventory inventory = inventoryRepository.findById(inventoryId)
+                .orElseThrow(() -> new NotFoundException(
+                        "Inventory not found",
+                        "Inventory: %s", inventoryId));
 
-        if (items.isEmpty()) {
-            return List.of();
+        if (!inventoryService.canUserViewInventory(user, inventory)) {
+            throw new NotAuthorizedException(
+                    "You do not have access to this inventory",
+                    "Inventory: %s, User: %s", inventoryId, user.getId());
         }
 
-        // Get all claims for these items in one query
-        List<UUID> itemIds = items.stream().map(Item::getId).toList();
-        List<ItemClaim> allClaims = claimRepository.findByItemIdIn(itemIds);
-
-        // Group claims by item ID
-        Map<UUID, List<ItemClaim>> claimsByItem = allClaims.stream()
-                .collect(Collectors.groupingBy(c -> c.getItem().getId()));
-
-        return items.stream().map(item -> {
-            List<ItemClaim> itemClaims = claimsByItem.getOrDefault(item.getId(), List.of());
-            int claimCount = itemClaims.size();
-            ItemClaim assigned = itemClaims.stream()
-                    .filter(c -> c.getStatus() == ClaimStatus.ASSIGNED)
-                    .findFirst()
-                    .orElse(null);
-            boolean isAssigned = assigned != null;
-            String assignedToName = isAssigned
-                    ? assigned.getUser().getFirstName() + " " + assigned.getUser().getLastName()
-                    : null;
-            boolean currentUserClaimed = itemClaims.stream()
-                    .anyMatch(c -> c.getUser().equals(user));
-            boolean assignedToCurrentUser = assigned != null && assigned.getUser().equals(user);
+        Category category = categoryRepository.findByInventoryAndId(inventory, categoryId)
+                .orElseThrow(() -> new NotFoundException(
+                        "Category not found",
+                        "Category: %s, Inventory: %s", categoryId, inventoryId));
 
-            return ItemWithThumbnailDTO.toDTO(item, claimCount, isAssigned, assignedToName, currentUserClaimed, assignedToCurrentUser);
-        }).toList();
+        boolean canEdit = inventoryService.canUserEditInventory(user, inventory);
+        checkCategoryVisible(category, canEdit, user);
+        List<ItemRepository.ItemListRow> rows = canEdit
+                ? itemRepository.findListRowsByCategory(user.getId(), category.getId(),
+                        after.referenceNumber(), after.itemId(), pageLimit(limit))
+                : itemRepository.findVisibleListRowsByCategory(user.getId(), category.getId(),
+                        after.referenceNumber(), after.itemId(), pageLimit(limit));
+        LoggerUtil.info(log, "Listed %d items from category %s (canEdit=%s)", rows.size(), categoryId, canEdit);
+        return new ItemListDTO(toDTOs(rows, thumbnailMode), nextCursor(rows, limit, ItemCursor::after));
     }
 
+    // Uploads are validated and written to the blob store before the transaction opens, so no
+    // connection or lock is held while the bytes are stored
+    @Transactional(propagation = Propagation.NEVER)
     public ItemResponseDTO createItemInCategoryDTO(@NonNull User user, @NonNull UUID inventoryId,
                                                     @NonNull UUID categoryId, @NonNull ItemRequestDTO dto,
-                                                    byte[] imageData) {
-        Item item = createItemInCategory(user, inventoryId, categoryId, dto, imageData);
+                                                    Resource imageData) {
+        ItemImageService.StoredContent original = stageImage(imageData);
+        Item item = transactionTemplate.execute(status ->
+                createItemInCategory(user, inventoryId, categoryId, dto, original));
         // New items have no claims
         return ItemResponseDTO.toDTO(item, 0, false, null, false, false);
     }
 
     public List<ItemWithThumbnailDTO> getClaimedItemsWithThumbnails(@NonNull User user,
-            @NonNull UUID inventoryId) {
+            @NonNull UUID inventoryId, @NonNull ThumbnailMode thumbnailMode) {
         Inventory inventory = inventoryRepository.findById(inventoryId)
                 .orElseThrow(() -> new NotFoundException(
                         "Inventory not found",
@@ -478,73 +493,79 @@ public class ItemService {
                     "Inventory: %s, User: %s", inventoryId, user.getId());
         }
 
-        List<ItemClaim> userClaims = claimRepository.findByUserAndInventoryId(user, inventoryId);
-        List<Item> items = userClaims.stream().map(ItemClaim::getItem).toList();
-
-        if (items.isEmpty()) {
-            return List.of();
-        }
-
-        // Get all claims for these items in one query
-        List<UUID> itemIds = items.stream().map(Item::getId).toList();
-        List<ItemClaim> allClaims = claimRepository.findByItemIdIn(itemIds);
-
-        // Group claims by item ID
-        Map<UUID, List<ItemClaim>> claimsByItem = allClaims.stream()
-                .collect(Collectors.groupingBy(c -> c.getItem().getId()));
-
-        return items.stream().map(item -> {
-            List<ItemClaim> itemClaims = claimsByItem.getOrDefault(item.getId(), List.of());
-            int claimCount = itemClaims.size();
-            ItemClaim assigned = itemClaims.stream()
-                    .filter(c -> c.getStatus() == ClaimStatus.ASSIGNED)
-                    .findFirst()
-                    .orElse(null);
-            boolean isAssigned = assigned != null;
-            String assignedToName = isAssigned
-                    ? assigned.getUser().getFirstName() + " " + assigned.getUser().getLastName()
-                    : null;
-            boolean currentUserClaimed = true;
-            boolean assignedToCurrentUser = assigned != null && assigned.getUser().equals(user);
-
-            return ItemWithThumbnailDTO.toDTO(item, claimCount, isAssigned, assignedToName, currentUserClaimed, assignedToCurrentUser);
-        }).toList();
+        List<ItemRepository.ItemListRow> rows = itemRepository.findClaimedListRows(user.getId(), inventoryId);
+        return toDTOs(rows, thumbnailMode);
     }
 
     // DTO methods with claim information
 
-    public List<ItemWithThumbnailDTO> getItemsWithThumbnails(@NonNull User user, @NonNull UUID inventoryId) {
-        List<Item> items = getItems(user, inventoryId);
+    public ItemListDTO getItemsWithThumbnails(@NonNull User user, @NonNull UUID inventoryId,
+                                              @NonNull ThumbnailMode thumbnailMode,
+                                              @NonNull ItemCursor after, Integer limit) {
+        Inventory inventory = inventoryRepository.findById(inventoryId)
+                .orElseThrow(() -> new NotFoundException(
+                        "Inventory not found",
+                        "Inventory: %s", inventoryId));
 
-        if (items.isEmpty()) {
-            return List.of();
+        if (!inventoryService.canUserViewInventory(user, inventory)) {
+            throw new NotAuthorizedException(
+                    "You do not have access to this inventory",
+                    "Inventory: %s, User: %s", inventoryId, user.getId());
         }
 
-        // Get all claims for these items in one query
-        List<UUID> itemIds = items.stream().map(Item::getId).toList();
-        List<ItemClaim> allClaims = claimRepository.findByItemIdIn(itemIds);
+        boolean canEdit = inventoryService.canUserEditInventory(user, inventory);
+        List<ItemRepository.ItemListRow> rows = canEdit
+                ? itemRepository.findListRowsByInventory(user.getId(), inventoryId,
+                        after.referenceNumber(), after.itemId(), pageLimit(limit))
+                : itemRepository.findVisibleListRowsByInventory(user.getId(), inventoryId,
+                        after.referenceNumber(), after.itemId(), pageLimit(limit));
+        LoggerUtil.info(log, "Listed %d items from inventory %s", rows.size(), inventoryId);
+        return new ItemListDTO(toDTOs(rows, thumbnailMode), nextCursor(rows, limit, ItemCursor::after));
+    }
+
+    // Without a watermark, or after the caller's role changed, this is the full listing
+    public ItemChangesDTO getItemChanges(@NonNull User user, @NonNull UUID inventoryId, String since,
+                                         @NonNull ThumbnailMode thumbnailMode) {
+        Inventory inventory = inventoryRepository.findById(inventoryId)
+                .orElseThrow(() -> new NotFoundException(
+                        "Inventory not found",
+                        "Inventory: %s", inventoryId));
 
-        // Group claims by item ID
-        Map<UUID, List<ItemClaim>> claimsByItem = allClaims.stream()
-                .collect(Collectors.groupingBy(c -> c.getItem().getId()));
+        if (!inventoryService.canUserViewInventory(user, inventory)) {
+            throw new NotAuthorizedException(
+                    "You do not have access to this inventory",
+                    "Inventory: %s, User: %s", inventoryId, user.getId());
+        }
 
-        return items.stream().map(item -> {
-            List<ItemClaim> itemClaims = claimsByItem.getOrDefault(item.getId(), List.of());
-            int claimCount = itemClaims.size();
-            ItemClaim assigned = itemClaims.stream()
-                    .filter(c -> c.getStatus() == ClaimStatus.ASSIGNED)
-                    .findFirst()
-                    .orElse(null);
-            boolean isAssigned = assigned != null;
-            String assignedToName = isAssigned
-                    ? assigned.getUser().getFirstName() + " " + assigned.getUser().getLastName()
-                    : null;
-            boolean currentUserClaimed = itemClaims.stream()
-                    .anyMatch(c -> c.getUser().equals(user));
-            boolean assignedToCurrentUser = assigned != null && assigned.getUser().equals(user);
+        // Taken before reading and held back by the overlap, so writes still committing
+        // while we read are picked up next time; clients may see an item twice, never miss one
+        Instant watermark = Instant.now().minus(changesOverlap);
+        Instant sinceInstant = parseWatermark(since);
+        boolean canEdit = inventoryService.canUserEditInventory(user, inventory);
+        boolean reset = sinceInstant == null
+                || inventoryService.hasMembershipChangedSince(user, inventory, sinceInstant);
+
+        List<ItemRepository.ItemListRow> rows;
+        List<UUID> removed;
+        if (reset) {
+            rows = canEdit
+                    ? itemRepository.findListRowsByInventory(user.getId(), inventoryId,
+                            ItemCursor.START.referenceNumber(), ItemCursor.START.itemId(), Limit.unlimited())
+                    : itemRepository.findVisibleListRowsByInventory(user.getId(), inventoryId,
+                            ItemCursor.START.referenceNumber(), ItemCursor.START.itemId(), Limit.unlimited());
+            removed = List.of();
+        } else if (canEdit) {
+            rows = itemRepository.findListRowsChangedSince(user.getId(), inventoryId, sinceInstant);
+            removed = itemRepository.findIdsDeletedSince(inventoryId, sinceInstant);
+        } else {
+            rows = itemRepository.findVisibleListRowsChangedSince(user.getId(), inventoryId, sinceInstant);
+            removed = itemRepository.findIdsHiddenFromUserSince(user.getId(), inventoryId, sinceInstant);
+        }
 
-            return ItemWithThumbnailDTO.toDTO(item, claimCount, isAssigned, assignedToName, currentUserClaimed, assignedToCurrentUser);
-        }).toList();
+        LoggerUtil.info(log, "Item changes for inventory %s since %s: %d changed, %d removed (reset=%s)",
+                inventoryId, sinceInstant, rows.size(), removed.size(), reset);
+        return new ItemChangesDTO(toDTOs(rows, thumbnailMode), removed,
+                String.valueOf(watermark.toEpochMilli()), reset);
     }
 
     public ItemResponseDTO getItemDTO(@NonNull User user, @NonNull UUID inventoryId, @NonNull UUID itemId) {
@@ -552,9 +573,11 @@ public class ItemService {
         return buildItemResponseDTO(item, user);
     }
 
+    @Transactional(propagation = Propagation.NEVER)
     public ItemResponseDTO createItemDTO(@NonNull User user, @NonNull UUID inventoryId,
-                                          @NonNull ItemRequestDTO dto, byte[] imageData) {
-        Item item = createItem(user, inventoryId, dto, imageData);
+                                          @NonNull ItemRequestDTO dto, Resource imageData) {
+        ItemImageService.StoredContent original = stageImage(imageData);
+        Item item = transactionTemplate.execute(status -> createItem(user, inventoryId, dto, original));
         // New items have no claims
         return ItemResponseDTO.toDTO(item, 0, false, null, false, false);
     }
@@ -565,10 +588,205 @@ public class ItemService {
         return buildItemResponseDTO(item, user);
     }
 
+    @Transactional(propagation = Propagation.NEVER)
     public ItemResponseDTO updateItemImageDTO(@NonNull User user, @NonNull UUID inventoryId,
-                                               @NonNull UUID itemId, @NonNull byte[] imageData) {
-        Item item = updateItemImage(user, inventoryId, itemId, imageData);
-        return buildItemResponseDTO(item, user);
+                                               @NonNull UUID itemId, @NonNull Resource imageData) {
+        ItemImageService.StoredContent original = imageProcessingService.stage(imageData);
+        return transactionTemplate.execute(status ->
+                buildItemResponseDTO(updateItemImage(user, inventoryId, itemId, original), user));
+    }
+
+    // List entries from rows that already carry their claim summary; thumbnails are one more batch
+    private List<ItemWithThumbnailDTO> toDTOs(List<ItemRepository.ItemListRow> rows, ThumbnailMode thumbnailMode) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        ItemImageService.ListThumbnails thumbnails = itemImageService.getListThumbnails(
+                rows.stream().filter(ItemRepository.ItemListRow::getHasImage).map(ItemRepository.ItemListRow::getId).toList(),
+                thumbnailMode);
+        return rows.stream()
+                .map(row -> ItemWithThumbnailDTO.toDTO(row, thumbnails.data().get(row.getId()),
+                        thumbnails.versions().get(row.getId())))
+                .toList();
+    }
+
+    // Hidden categories are invisible to viewers and claimants, as in CategoryService
+    private void checkCategoryVisible(Category category, boolean canEdit, User user) {
+        if (category.getHidden() && !canEdit) {
+            throw new NotFoundException(
+                    "Category not found",
+                    "Category: %s is hidden, User: %s", category.getId(), user.getId());
+        }
+    }
+
+    private Instant parseWatermark(String since) {
+        if (since == null || since.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(since.trim()));
+        } catch (NumberFormatException e) {
+            throw new BadInputException(
+                    "Invalid change watermark",
+                    "Watermark: %s", since);
+        }
+    }
+
+    private Limit pageLimit(Integer limit) {
+        if (limit == null) {
+            return Limit.unlimited();
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadInputException(
+                    "Limit must be between 1 and " + MAX_PAGE_SIZE,
+                    "Limit: %d", limit);
+        }
+        return Limit.of(limit);
+    }
+
+    // A full page means there may be more; the next one starts after its last row
+    private <T> ItemCursor nextCursor(List<T> page, Integer limit, Function<T, ItemCursor> position) {
+        if (limit == null || page.size() < limit) {
+            return null;
+        }
+        return position.apply(page.get(page.size() - 1));
+    }
+
+    private record RenditionKey(ImageRendition rendition, int width) {}
+
+    private RenditionKey imageRendition(Integer width) {
+        if (width == null) {
+            return new RenditionKey(ImageRendition.IMAGE, 0);
+        }
+        int snapped = imageService.snapImageWidth(requirePositive(width));
+        return imageService.isFullImageWidth(snapped)
+                ? new RenditionKey(ImageRendition.IMAGE, 0)
+                : new RenditionKey(ImageRendition.SCALED, snapped);
+    }
+
+    private RenditionKey thumbnailRendition(Integer size) {
+        if (size == null) {
+            return new RenditionKey(ImageRendition.THUMBNAIL, 0);
+        }
+        int snapped = imageService.snapThumbnailSize(requirePositive(size));
+        return imageService.isDefaultThumbnailSize(snapped)
+                ? new RenditionKey(ImageRendition.THUMBNAIL, 0)
+                : new RenditionKey(ImageRendition.SCALED_THUMBNAIL, snapped);
+    }
+
+    private int requirePositive(int width) {
+        if (width <= 0) {
+            throw new BadInputException(
+                    "Image width must be positive",
+                    "Width: %d", width);
+        }
+        return width;
+    }
+
+    // Either the stored rendition, or the image it is drawn from: the source's rendition and hash
+    // let the result be discarded if a new upload replaced it meanwhile
+    private record RenditionSource(ItemImageService.ImageContent stored, ImageRendition rendition,
+                                   String contentHash, byte[] data, Integer badge) {}
+
+    // Follows the image pipeline: read in one short transaction, render and write the blob outside
+    // any, attach it in another
+    private ItemImageService.ImageContent getRendition(User user, UUID inventoryId, UUID itemId,
+                                                       RenditionKey key, String missingMessage) {
+        while (true) {
+            RenditionSource source = readOnlyTransactionTemplate.execute(status ->
+                    loadRenditionSource(getItem(user, inventoryId, itemId), key, missingMessage));
+            if (source.stored() != null) {
+                return source.stored();
+            }
+            ItemImageService.StoredContent rendered =
+                    itemImageService.putContent(renderRendition(itemId, key, source));
+            ItemImageService.ImageContent stored = transactionTemplate.execute(status ->
+                    storeRendition(itemId, key, source, rendered));
+            if (stored != null) {
+                return stored;
+            }
+            // The source was replaced while this one rendered; draw again from the new one
+        }
+    }
+
+    // IMAGE and SCALED renditions are drawn from the clean MASTER with the current reference
+    // badge on first request (or after a renumber) and kept for later ones. Legacy items have
+    // no master and the badge burned into IMAGE, so scaled copies come from that instead; their
+    // scaled thumbnails would show that badge too, so the stored THUMBNAIL is served for every size
+    private RenditionSource loadRenditionSource(Item item, RenditionKey key, String missingMessage) {
+        Optional<ItemImageService.ImageContent> stored =
+                itemImageService.getImageContent(item, key.rendition(), key.width());
+        if (stored.isPresent()) {
+            return new RenditionSource(stored.get(), null, null, null, null);
+        }
+        if (key.rendition() == ImageRendition.THUMBNAIL) {
+            throw missingRendition(item, key, missingMessage);
+        }
+
+        Optional<byte[]> master = itemImageService.getImageBytes(item, ImageRendition.MASTER);
+        if (master.isPresent()) {
+            Integer badge = key.rendition() == ImageRendition.SCALED_THUMBNAIL ? null : item.getReferenceNumber();
+            return new RenditionSource(null, ImageRendition.MASTER,
+                    itemImageService.getContentHash(item, ImageRendition.MASTER).orElseThrow(), master.get(), badge);
+        }
+        if (key.rendition() == ImageRendition.SCALED_THUMBNAIL) {
+            return new RenditionSource(itemImageService.getImageContent(item, ImageRendition.THUMBNAIL, 0)
+                    .orElseThrow(() -> missingRendition(item, key, missingMessage)), null, null, null, null);
+        }
+        Optional<byte[]> legacy = key.width() == 0
+                ? Optional.empty()
+                : itemImageService.getImageBytes(item, ImageRendition.IMAGE);
+        if (legacy.isEmpty()) {
+            throw missingRendition(item, key, missingMessage);
+        }
+        return new RenditionSource(null, ImageRendition.IMAGE,
+                itemImageService.getContentHash(item, ImageRendition.IMAGE).orElseThrow(), legacy.get(), null);
+    }
+
+    private NotFoundException missingRendition(Item item, RenditionKey key, String missingMessage) {
+        return new NotFoundException(
+                missingMessage,
+                "Item: %s, Rendition: %s", item.getId(), key.rendition());
+    }
+
+    private byte[] renderRendition(UUID itemId, RenditionKey key, RenditionSource source) {
+        byte[] rendered;
+        try {
+            if (key.rendition() == ImageRendition.SCALED_THUMBNAIL) {
+                rendered = imageService.squareThumbnail(source.data(), key.width());
+            } else if (source.badge() != null) {
+                rendered = imageService.renderBadgedImage(source.data(), key.width(), source.badge());
+            } else {
+                rendered = imageService.scaleToWidth(source.data(), key.width());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render image for item " + itemId, e);
+        }
+        LoggerUtil.debug(log, "Generated %s at %d for item %s (%d bytes)",
+                key.rendition(), key.width(), itemId, rendered.length);
+        return rendered;
+    }
+
+    // Null when the item's source image changed since it was read
+    private ItemImageService.ImageContent storeRendition(UUID itemId, RenditionKey key, RenditionSource source,
+                                                         ItemImageService.StoredContent rendered) {
+        Item item = itemRepository.findById(itemId).orElse(null);
+        if (item == null || Boolean.TRUE.equals(item.getIsDeleted())) {
+            return null;
+        }
+        if (!itemImageService.getContentHash(item, source.rendition()).map(source.contentHash()::equals)
+                .orElse(false)) {
+            return null;
+        }
+        return itemImageService.storeRendition(item, key.rendition(), key.width(), rendered, source.badge());
+    }
+
+    private ItemImageService.StoredContent stageImage(Resource imageData) {
+        if (imageData == null) {
+            return null;
+        }
+        return imageProcessingService.stage(imageData);
     }
 
     private ItemResponseDTO buildItemResponseDTO(Item item, User user) {
@@ -25,6 +25,7 @@ public class MemberService {
 
     private final InventoryRepository inventoryRepository;
     private final InventoryMemberRepository memberRepository;
+    private final InventoryVersionService inventoryVersionService;
     private final EmailService emailService;
 
     public List<InventoryMember> getMembers(@NonNull User user, @NonNull UUID inventoryId) {
@@ -52,6 +53,7 @@ public class MemberService {
 
         LoggerUtil.info(log, "Updated member %s role to %s in inventory %s",
                 memberId, newRole, inventoryId);
+        inventoryVersionService.bump(inventoryId);
 
         return member;
     }
@@ -76,6 +78,7 @@ public class MemberService {
 
         LoggerUtil.info(log, "Updated member %s status to %s in inventory %s",
                 memberId, newStatus, inventoryId);
+        inventoryVersionService.bump(inventoryId);
 
         return member;
     }
@@ -93,6 +96,7 @@ public class MemberService {
                     memberRepository.save(member);
                     LoggerUtil.info(log, "Activated member %s for inventory %s on first access",
                             user.getId(), inventoryId);
+                    inventoryVersionService.bump(inventoryId);
                 });
     }
 
@@ -119,6 +123,7 @@ public class MemberService {
 
         memberRepository.delete(member);
         LoggerUtil.info(log, "Removed member %s from inventory %s", memberId, inventoryId);
+        inventoryVersionService.bump(inventoryId);
     }
 
     public void markAsFinished(@NonNull User user, @NonNull UUID inventoryId) {
@@ -142,6 +147,7 @@ public class MemberService {
             member.setFinishedAt(Instant.now());
             memberRepository.save(member);
             LoggerUtil.info(log, "Member %s marked as finished in inventory %s", user.getId(), inventoryId);
+            inventoryVersionService.bump(inventoryId);
         }
     }
 
@@ -165,11 +171,13 @@ public class MemberService {
             memberRepository.save(member);
             LoggerUtil.info(log, "Admin %s marked member %s as finished in inventory %s",
                     user.getId(), memberId, inventoryId);
+            inventoryVersionService.bump(inventoryId);
         } else if (!finished && member.getFinishedAt() != null) {
             member.setFinishedAt(null);
             memberRepository.save(member);
             LoggerUtil.info(log, "Admin %s reset finished for member %s in inventory %s",
                     user.getId(), memberId, inventoryId);
+            inventoryVersionService.bump(inventoryId);
         }
     }
 
@@ -0,0 +1,84 @@
+package com.requillion.solutions.inventory.service;
+
+import com.requillion.solutions.inventory.model.Category;
+import com.requillion.solutions.inventory.model.Inventory;
+import com.requillion.solutions.inventory.repository.ReferenceCounterRepository;
+import com.requillion.solutions.inventory.util.LoggerUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Allocates item reference numbers from per-category counters (per-inventory for items
+ * without a category, numbered after the highest number in any of the inventory's
+ * counters so they never repeat a categorised item's number). With a block size above one, each node reserves a block of numbers
+ * in its own short transaction and hands them out from memory; numbers left in a block
+ * when the node stops are skipped, and numbers from different nodes may interleave.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReferenceNumberService {
+
+    private final ReferenceCounterRepository counterRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.reference-numbers.block-size:1}")
+    private int blockSize;
+
+    private static final class ReservedBlock {
+        private int next = 1;
+        private int last = 0;
+    }
+
+    private final Map<UUID, ReservedBlock> blocks = new ConcurrentHashMap<>();
+
+    private TransactionTemplate reserveTransaction;
+
+    @PostConstruct
+    void init() {
+        reserveTransaction = new TransactionTemplate(transactionManager);
+        reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (blockSize > 1) {
+            LoggerUtil.info(log, "Reserving reference numbers in blocks of %d", blockSize);
+        }
+    }
+
+    public int nextReferenceNumber(@NonNull Inventory inventory, Category category) {
+        UUID scopeId = category != null ? category.getId() : inventory.getId();
+        UUID categoryId = category != null ? category.getId() : null;
+
+        // Single allocations join the caller's transaction so a rollback returns the number
+        if (blockSize <= 1) {
+            return allocate(scopeId, inventory.getId(), categoryId, 1);
+        }
+
+        ReservedBlock block = blocks.computeIfAbsent(scopeId, id -> new ReservedBlock());
+        synchronized (block) {
+            if (block.next > block.last) {
+                Integer last = reserveTransaction.execute(status ->
+                        allocate(scopeId, inventory.getId(), categoryId, blockSize));
+                block.last = last;
+                block.next = last - blockSize + 1;
+                LoggerUtil.debug(log, "Reserved reference numbers %d-%d for scope %s", block.next, block.last, scopeId);
+            }
+            return block.next++;
+        }
+    }
+
+    private int allocate(UUID scopeId, UUID inventoryId, UUID categoryId, int count) {
+        return categoryId != null
+                ? counterRepository.allocate(scopeId, inventoryId, categoryId, count)
+                : counterRepository.allocateUncategorised(inventoryId, count);
+    }
+}
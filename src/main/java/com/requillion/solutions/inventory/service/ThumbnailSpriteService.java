@@ -0,0 +1,175 @@
+package com.requillion.solutions.inventory.service;
+
+import com.requillion.solutions.inventory.dto.ItemCursor;
+import com.requillion.solutions.inventory.exception.NotFoundException;
+import com.requillion.solutions.inventory.model.Item;
+import com.requillion.solutions.inventory.model.User;
+import com.requillion.solutions.inventory.util.ContentHash;
+import com.requillion.solutions.inventory.util.LoggerUtil;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+
+/**
+ * One JPEG atlas of a category's thumbnails plus the tile coordinates, so a category grid
+ * needs two requests instead of one per item. The version is a hash of the visible items
+ * and their thumbnail content hashes, read from the image rows alone: it only changes when
+ * an item's thumbnail, or the set of items the caller can see, changes. Built atlases are
+ * kept in an LRU keyed by that version and bounded by their total size. Larger categories are
+ * split into atlases of up to MAX_TILES items, paged with the same cursor as the item listing.
+ * Only the source lookup and the thumbnail read use a transaction; drawing the atlas holds none.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ThumbnailSpriteService {
+
+    // Wide enough for a desktop grid while keeping a 200 item atlas at 2000x4000
+    private static final int SPRITE_COLUMNS = 10;
+
+    // Items per atlas; keeps the sheet far below JPEG's 65535 pixel height and within the
+    // decode budget however large the category grows
+    private static final int MAX_TILES = 200;
+
+    // Rough heap cost of a tile or cache entry beyond the atlas bytes
+    private static final long ENTRY_OVERHEAD_BYTES = 64;
+
+    private final ItemService itemService;
+    private final ItemImageService itemImageService;
+    private final ImageService imageService;
+
+    @Value("${app.thumbnail-sprite.cache-bytes:64MB}")
+    private DataSize cacheBytes;
+
+    // Access ordered, so iteration starts at the least recently used atlas; guarded by itself
+    private final Map<String, Sprite> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    public record Tile(UUID itemId, int x, int y) {}
+
+    // next is where the following atlas starts, null on the last one
+    public record Sprite(String version, int tileSize, int columns, int width, int height,
+                         List<Tile> tiles, byte[] image, ItemCursor next) {}
+
+    // The items one atlas is drawn from; loaded once per request and used both for the
+    // conditional check and, when that misses, to build or look up the atlas
+    public record SpriteSource(UUID inventoryId, UUID categoryId, String version, List<Item> items,
+                               ItemCursor next) {}
+
+    // Cheap enough for conditional requests: no blobs are read and nothing is drawn
+    @Transactional(readOnly = true)
+    public SpriteSource getSpriteSource(@NonNull User user, @NonNull UUID inventoryId, @NonNull UUID categoryId,
+                                        @NonNull ItemCursor after) {
+        ItemService.ItemPage page = itemService.getItemsByCategory(user, inventoryId, categoryId, after, MAX_TILES);
+        Map<UUID, String> thumbnailHashes = itemImageService.getThumbnailHashes(page.items());
+        List<Item> items = page.items().stream()
+                .filter(item -> thumbnailHashes.containsKey(item.getId()))
+                .toList();
+
+        MessageDigest digest = ContentHash.newDigest();
+        digest.update((categoryId + ":" + after + ":" + page.next() + "\n").getBytes(StandardCharsets.UTF_8));
+        for (Item item : items) {
+            digest.update((item.getId() + ":" + thumbnailHashes.get(item.getId()) + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        String version = ContentHash.toHex(digest.digest()).substring(0, 32);
+        return new SpriteSource(inventoryId, categoryId, version, items, page.next());
+    }
+
+    public Sprite getSprite(@NonNull SpriteSource source) {
+        Sprite sprite;
+        synchronized (cache) {
+            sprite = cache.get(source.version());
+        }
+        if (sprite != null) {
+            return sprite;
+        }
+
+        // Two requests racing on a new version both build it; the result is identical
+        sprite = build(source);
+        cache(sprite);
+        LoggerUtil.debug(log, "Built thumbnail sprite %s for category %s: %d tiles, %d bytes",
+                source.version(), source.categoryId(), sprite.tiles().size(),
+                sprite.image() != null ? sprite.image().length : 0);
+        return sprite;
+    }
+
+    // As getSprite, but a page without thumbnails has no atlas to serve
+    public Sprite getSpriteWithImage(@NonNull SpriteSource source) {
+        Sprite sprite = getSprite(source);
+        if (sprite.image() == null) {
+            throw new NotFoundException(
+                    "Category has no thumbnails",
+                    "Category: %s, Inventory: %s", source.categoryId(), source.inventoryId());
+        }
+        return sprite;
+    }
+
+    // Evicts least recently used atlases until the new one fits; one larger than the whole
+    // cache is served but not kept
+    private void cache(Sprite sprite) {
+        long size = sizeOf(sprite);
+        if (size > cacheBytes.toBytes()) {
+            return;
+        }
+        synchronized (cache) {
+            Sprite previous = cache.put(sprite.version(), sprite);
+            cachedBytes += size - (previous != null ? sizeOf(previous) : 0);
+            Iterator<Sprite> eldest = cache.values().iterator();
+            while (cachedBytes > cacheBytes.toBytes()) {
+                cachedBytes -= sizeOf(eldest.next());
+                eldest.remove();
+            }
+        }
+    }
+
+    // The encoded atlas dominates; tiles and the entry itself are counted roughly so that
+    // even atlases without an image stay bounded
+    private static long sizeOf(Sprite sprite) {
+        long imageBytes = sprite.image() != null ? sprite.image().length : 0;
+        return imageBytes + ENTRY_OVERHEAD_BYTES * (sprite.tiles().size() + 1);
+    }
+
+    // The thumbnails are read in ItemImageService's own short transaction
+    private Sprite build(SpriteSource source) {
+        Map<UUID, byte[]> thumbnails = itemImageService.getThumbnails(source.items());
+        List<byte[]> tileImages = new ArrayList<>();
+        List<UUID> tileItems = new ArrayList<>();
+        for (Item item : source.items()) {
+            byte[] thumbnail = thumbnails.get(item.getId());
+            if (thumbnail != null) {
+                tileImages.add(thumbnail);
+                tileItems.add(item.getId());
+            }
+        }
+
+        if (tileImages.isEmpty()) {
+            return new Sprite(source.version(), 0, 0, 0, 0, List.of(), null, source.next());
+        }
+
+        int columns = Math.min(SPRITE_COLUMNS, tileImages.size());
+        ImageService.SpriteSheet sheet;
+        try {
+            sheet = imageService.composeSprite(tileImages, columns);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to build thumbnail sprite " + source.version(), e);
+        }
+
+        List<Tile> tiles = new ArrayList<>();
+        for (int i = 0; i < tileItems.size(); i++) {
+            tiles.add(new Tile(tileItems.get(i), (i % columns) * sheet.tileSize(), (i / columns) * sheet.tileSize()));
+        }
+        return new Sprite(source.version(), sheet.tileSize(), columns, sheet.width(), sheet.height(),
+                List.copyOf(tiles), sheet.image(), source.next());
+    }
+}
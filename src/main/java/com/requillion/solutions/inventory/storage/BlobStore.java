@@ -0,0 +1,68 @@
+package com.requillion.solutions.inventory.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed storage for binary data such as item images.
+ * Keys are the SHA-256 hex digest of the content, so storing the same bytes twice
+ * yields the same key and a single stored copy.
+ */
+public interface BlobStore {
+
+    /**
+     * Stores the data and returns its content key.
+     */
+    String put(byte[] data) throws IOException;
+
+    /**
+     * Stores the resource's content without holding it in memory. The resource is
+     * read more than once (to derive the key, then to store), so it must be re-openable.
+     */
+    String put(Resource data) throws IOException;
+
+    /**
+     * Returns a resource that streams the blob. Reading a missing blob throws
+     * {@link java.io.FileNotFoundException}.
+     */
+    Resource get(String key) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    /**
+     * Removes the blob even if something still points at it. Only the blob collector
+     * should call this, after it has made sure nothing does.
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Reads several small blobs at once. Missing blobs are left out of the result.
+     */
+    default Map<String, byte[]> getAll(Collection<String> keys) throws IOException {
+        Map<String, byte[]> result = new HashMap<>();
+        for (String key : keys) {
+            try {
+                result.put(key, get(key).getContentAsByteArray());
+            } catch (FileNotFoundException e) {
+                // Skip - callers treat a missing blob the same as no image
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Spreads keys over two directory levels (ab/cd/abcd...) so no single
+     * directory or key prefix grows unbounded.
+     */
+    static String shardedPath(String key) {
+        if (key.length() < 4) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return key.substring(0, 2) + "/" + key.substring(2, 4) + "/" + key;
+    }
+}
@@ -0,0 +1,200 @@
+package com.requillion.solutions.inventory.storage;
+
+import com.requillion.solutions.inventory.model.StoredBlob;
+import com.requillion.solutions.inventory.repository.StoredBlobRepository;
+import com.requillion.solutions.inventory.util.ContentHash;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "app.blob-store.type", havingValue = "database", matchIfMissing = true)
+@RequiredArgsConstructor
+@Transactional
+public class DatabaseBlobStore implements BlobStore {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final StoredBlobRepository blobRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String put(byte[] data) {
+        String key = ContentHash.sha256(data);
+        blobRepository.insertIfAbsent(key, data, data.length);
+        return key;
+    }
+
+    // Hashes in one pass, then binds the content as a stream so the driver sends it
+    // without a full-size copy in the heap
+    @Override
+    public String put(Resource data) throws IOException {
+        String key;
+        try (InputStream in = data.getInputStream()) {
+            key = ContentHash.sha256(in);
+        }
+        if (blobRepository.existsById(key)) {
+            return key;
+        }
+
+        long size = data.contentLength();
+        try (InputStream in = data.getInputStream()) {
+            jdbcTemplate.update("INSERT INTO inventory.blobs (content_hash, data, size_bytes) " +
+                                "VALUES (?, ?, ?) ON CONFLICT (content_hash) DO NOTHING",
+                    ps -> {
+                        ps.setString(1, key);
+                        ps.setBinaryStream(2, in, size);
+                        ps.setLong(3, size);
+                    });
+        }
+        return key;
+    }
+
+    @Override
+    public Resource get(String key) throws FileNotFoundException {
+        long size = blobRepository.findSizeBytes(key)
+                .orElseThrow(() -> new FileNotFoundException("Blob not found: " + key));
+        return new DatabaseBlobResource(key, size);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return blobRepository.existsById(key);
+    }
+
+    // Joins the collector's transaction, so the row and its candidate go in one commit
+    @Override
+    public void delete(String key) {
+        blobRepository.deleteById(key);
+    }
+
+    @Override
+    public Map<String, byte[]> getAll(Collection<String> keys) {
+        return blobRepository.findAllById(keys).stream()
+                .collect(Collectors.toMap(StoredBlob::getContentHash, StoredBlob::getData));
+    }
+
+    // Streams the blob in fixed-size slices so a download holds one chunk in memory,
+    // and skipping (as range requests do) costs nothing
+    private class DatabaseBlobResource extends AbstractResource {
+
+        private final String key;
+        private final long size;
+
+        DatabaseBlobResource(String key, long size) {
+            this.key = key;
+            this.size = size;
+        }
+
+        @Override
+        public String getDescription() {
+            return "blob " + key;
+        }
+
+        @Override
+        public boolean exists() {
+            return blobRepository.existsById(key);
+        }
+
+        @Override
+        public long contentLength() {
+            return size;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ChunkedBlobInputStream(key, size);
+        }
+
+        @Override
+        public byte[] getContentAsByteArray() throws IOException {
+            return blobRepository.findById(key)
+                    .map(StoredBlob::getData)
+                    .orElseThrow(() -> new FileNotFoundException("Blob not found: " + key));
+        }
+    }
+
+    private class ChunkedBlobInputStream extends InputStream {
+
+        private final String key;
+        private final long size;
+        private long position;
+        private byte[] chunk = new byte[0];
+        private int chunkOffset;
+
+        ChunkedBlobInputStream(String key, long size) {
+            this.key = key;
+            this.size = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            position++;
+            return chunk[chunkOffset++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, chunk.length - chunkOffset);
+            System.arraycopy(chunk, chunkOffset, buffer, offset, count);
+            chunkOffset += count;
+            position += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, size - position));
+            long inChunk = Math.min(skipped, chunk.length - chunkOffset);
+            chunkOffset += (int) inChunk;
+            if (skipped > inChunk) {
+                chunk = new byte[0];
+                chunkOffset = 0;
+            }
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return chunk.length - chunkOffset;
+        }
+
+        private boolean fill() throws IOException {
+            if (chunkOffset < chunk.length) {
+                return true;
+            }
+            if (position >= size) {
+                return false;
+            }
+            int length = (int) Math.min(CHUNK_SIZE, size - position);
+            byte[] next = blobRepository.readChunk(key, (int) position + 1, length);
+            if (next == null || next.length == 0) {
+                throw new FileNotFoundException("Blob not found or truncated: " + key);
+            }
+            chunk = next;
+            chunkOffset = 0;
+            return true;
+        }
+    }
+}
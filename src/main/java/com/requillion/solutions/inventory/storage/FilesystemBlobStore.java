@@ -0,0 +1,100 @@
+package com.requillion.solutions.inventory.storage;
+
+import com.requillion.solutions.inventory.util.ContentHash;
+import com.requillion.solutions.inventory.util.LoggerUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.security.DigestInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.blob-store.type", havingValue = "filesystem")
+public class FilesystemBlobStore implements BlobStore {
+
+    @Value("${app.blob-store.filesystem.root}")
+    private Path root;
+
+    private Path tempDir;
+
+    @PostConstruct
+    void init() throws IOException {
+        tempDir = root.resolve("tmp");
+        Files.createDirectories(tempDir);
+        LoggerUtil.info(log, "Filesystem blob store at %s", root.toAbsolutePath());
+    }
+
+    @Override
+    public String put(byte[] data) throws IOException {
+        String key = ContentHash.sha256(data);
+        Path target = pathFor(key);
+        if (Files.exists(target)) {
+            return key;
+        }
+
+        // Write to a temp file and move into place so readers never see a partial blob
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(tempDir, key, ".tmp");
+        try {
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return key;
+    }
+
+    // Copies into a temp file while hashing, so the content is read once and never buffered whole
+    @Override
+    public String put(Resource data) throws IOException {
+        Path temp = Files.createTempFile(tempDir, "upload", ".tmp");
+        try {
+            DigestInputStream in = new DigestInputStream(data.getInputStream(), ContentHash.newDigest());
+            try (in) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String key = ContentHash.toHex(in.getMessageDigest().digest());
+            Path target = pathFor(key);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Resource get(String key) throws IOException {
+        Path path = pathFor(key);
+        if (!Files.exists(path)) {
+            throw new FileNotFoundException("Blob not found: " + key);
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(pathFor(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(pathFor(key));
+    }
+
+    private Path pathFor(String key) {
+        return root.resolve(BlobStore.shardedPath(key));
+    }
+}
@@ -0,0 +1,282 @@
+package com.requillion.solutions.inventory.storage;
+
+import com.requillion.solutions.inventory.util.ContentHash;
+import com.requillion.solutions.inventory.util.LoggerUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+
+/**
+ * Stores blobs in an S3-compatible bucket. Setting an endpoint with path-style access
+ * allows running against a local stand-in such as MinIO.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.blob-store.type", havingValue = "s3")
+public class S3BlobStore implements BlobStore {
+
+    @Value("${app.blob-store.s3.bucket}")
+    private String bucket;
+
+    @Value("${app.blob-store.s3.region}")
+    private String region;
+
+    @Value("${app.blob-store.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${app.blob-store.s3.access-key:}")
+    private String accessKey;
+
+    @Value("${app.blob-store.s3.secret-key:}")
+    private String secretKey;
+
+    @Value("${app.blob-store.s3.path-style:false}")
+    private boolean pathStyle;
+
+    @Value("${app.blob-store.s3.prefix:blobs/}")
+    private String prefix;
+
+    private S3Client client;
+
+    @PostConstruct
+    void init() {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(pathStyle)
+                        .build());
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        if (!accessKey.isBlank()) {
+            builder.credentialsProvider(StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(accessKey, secretKey)));
+        }
+        client = builder.build();
+        LoggerUtil.info(log, "S3 blob store using bucket %s%s", bucket,
+                endpoint.isBlank() ? "" : " at " + endpoint);
+    }
+
+    @PreDestroy
+    void close() {
+        client.close();
+    }
+
+    @Override
+    public String put(byte[] data) throws IOException {
+        String key = ContentHash.sha256(data);
+        String objectKey = objectKey(key);
+        try {
+            if (objectExists(objectKey)) {
+                return key;
+            }
+            client.putObject(PutObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(objectKey)
+                            .contentLength((long) data.length)
+                            .build(),
+                    RequestBody.fromBytes(data));
+        } catch (SdkException e) {
+            throw new IOException("Failed to store blob " + key, e);
+        }
+        return key;
+    }
+
+    // Hashes in one pass and uploads in a second; the SDK reopens the resource on retry
+    @Override
+    public String put(Resource data) throws IOException {
+        String key;
+        try (InputStream in = data.getInputStream()) {
+            key = ContentHash.sha256(in);
+        }
+        String objectKey = objectKey(key);
+        ContentStreamProvider content = () -> {
+            try {
+                return data.getInputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        try {
+            if (objectExists(objectKey)) {
+                return key;
+            }
+            client.putObject(PutObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(objectKey)
+                            .contentLength(data.contentLength())
+                            .build(),
+                    RequestBody.fromContentProvider(content, data.contentLength(), "application/octet-stream"));
+        } catch (SdkException | UncheckedIOException e) {
+            throw new IOException("Failed to store blob " + key, e);
+        }
+        return key;
+    }
+
+    @Override
+    public Resource get(String key) {
+        return new S3ObjectResource(objectKey(key));
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        try {
+            return objectExists(objectKey(key));
+        } catch (SdkException e) {
+            throw new IOException("Failed to check blob " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey(key))
+                    .build());
+        } catch (SdkException e) {
+            throw new IOException("Failed to delete blob " + key, e);
+        }
+    }
+
+    private String objectKey(String key) {
+        return prefix + BlobStore.shardedPath(key);
+    }
+
+    private boolean objectExists(String objectKey) {
+        try {
+            client.headObject(HeadObjectRequest.builder().bucket(bucket).key(objectKey).build());
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        }
+    }
+
+    private class S3ObjectResource extends AbstractResource {
+
+        private final String objectKey;
+
+        S3ObjectResource(String objectKey) {
+            this.objectKey = objectKey;
+        }
+
+        @Override
+        public String getDescription() {
+            return "s3://" + bucket + "/" + objectKey;
+        }
+
+        @Override
+        public boolean exists() {
+            return objectExists(objectKey);
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            try {
+                return client.headObject(HeadObjectRequest.builder().bucket(bucket).key(objectKey).build())
+                        .contentLength();
+            } catch (NoSuchKeyException e) {
+                throw new FileNotFoundException(getDescription());
+            } catch (SdkException e) {
+                throw new IOException("Failed to read " + getDescription(), e);
+            }
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new RangedObjectInputStream(this);
+        }
+
+        private InputStream open(long offset) throws IOException {
+            GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(objectKey);
+            if (offset > 0) {
+                request.range("bytes=" + offset + "-");
+            }
+            try {
+                return client.getObject(request.build());
+            } catch (NoSuchKeyException e) {
+                throw new FileNotFoundException(getDescription());
+            } catch (SdkException e) {
+                throw new IOException("Failed to read " + getDescription(), e);
+            }
+        }
+    }
+
+    // Opens the object on first read, so a skip beforehand (as range requests do)
+    // becomes a ranged GET instead of downloading and discarding the prefix
+    private static class RangedObjectInputStream extends InputStream {
+
+        private final S3ObjectResource resource;
+        private long position;
+        private InputStream delegate;
+
+        RangedObjectInputStream(S3ObjectResource resource) {
+            this.resource = resource;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = open().read();
+            if (b >= 0) {
+                position++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = open().read(buffer, offset, length);
+            if (count > 0) {
+                position += count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (delegate == null) {
+                long skipped = Math.max(0, n);
+                position += skipped;
+                return skipped;
+            }
+            long skipped = delegate.skip(n);
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate != null) {
+                delegate.close();
+            }
+        }
+
+        private InputStream open() throws IOException {
+            if (delegate == null) {
+                delegate = resource.open(position);
+            }
+            return delegate;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+-- Item images table: keeps image bytes out of the items row so listing and
+-- mutation queries only touch the narrow item columns
+CREATE TABLE inventory.item_images (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    item_id UUID NOT NULL REFERENCES inventory.items(id) ON DELETE CASCADE,
+    rendition VARCHAR(20) NOT NULL,
+    data BYTEA NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    CONSTRAINT unique_item_image_rendition UNIQUE (item_id, rendition)
+);
+
+COMMENT ON TABLE inventory.item_images IS 'Image renditions for items, loaded only when image bytes are needed';
+COMMENT ON COLUMN inventory.item_images.rendition IS 'IMAGE for the full compressed image, THUMBNAIL for list views';
+
+-- Move existing image data
+INSERT INTO inventory.item_images (item_id, rendition, data, created_at, updated_at)
+SELECT id, 'IMAGE', image, created_at, updated_at
+FROM inventory.items
+WHERE image IS NOT NULL AND octet_length(image) > 0;
+
+INSERT INTO inventory.item_images (item_id, rendition, data, created_at, updated_at)
+SELECT id, 'THUMBNAIL', thumbnail, created_at, updated_at
+FROM inventory.items
+WHERE thumbnail IS NOT NULL AND octet_length(thumbnail) > 0;
+
+-- Items only keep a flag so responses can say whether an image exists
+ALTER TABLE inventory.items
+    ADD COLUMN has_image BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE inventory.items
+SET has_image = TRUE
+WHERE image IS NOT NULL AND octet_length(image) > 0;
+
+ALTER TABLE inventory.items DROP COLUMN image;
+ALTER TABLE inventory.items DROP COLUMN thumbnail;
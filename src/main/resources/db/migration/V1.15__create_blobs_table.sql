@@ -0,0 +1,34 @@
+-- Content-addressed blob storage used by the database blob store backend
+CREATE TABLE inventory.blobs (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    data BYTEA NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+COMMENT ON TABLE inventory.blobs IS 'Binary content keyed by SHA-256 hex digest';
+
+-- Item images now reference blobs by content hash instead of holding the bytes
+ALTER TABLE inventory.item_images
+    ADD COLUMN content_hash VARCHAR(64),
+    ADD COLUMN size_bytes BIGINT;
+
+UPDATE inventory.item_images
+SET content_hash = encode(sha256(data), 'hex'),
+    size_bytes = octet_length(data);
+
+INSERT INTO inventory.blobs (content_hash, data, size_bytes)
+SELECT DISTINCT ON (content_hash) content_hash, data, size_bytes
+FROM inventory.item_images
+ON CONFLICT (content_hash) DO NOTHING;
+
+ALTER TABLE inventory.item_images
+    ALTER COLUMN content_hash SET NOT NULL,
+    ALTER COLUMN size_bytes SET NOT NULL;
+
+ALTER TABLE inventory.item_images DROP COLUMN data;
+
+-- Index for reference checks before a blob is deleted
+CREATE INDEX idx_item_images_content_hash ON inventory.item_images(content_hash);
+
+COMMENT ON COLUMN inventory.item_images.content_hash IS 'Key of the rendition bytes in the configured blob store';
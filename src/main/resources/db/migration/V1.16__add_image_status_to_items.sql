@@ -0,0 +1,15 @@
+-- Image processing runs after the upload request returns, so items track
+-- where their renditions are in that pipeline
+ALTER TABLE inventory.items
+    ADD COLUMN image_status VARCHAR(20) NOT NULL DEFAULT 'NONE';
+
+UPDATE inventory.items
+SET image_status = 'READY'
+WHERE has_image = TRUE;
+
+COMMENT ON COLUMN inventory.items.image_status IS 'NONE, PROCESSING, READY or FAILED';
+
+-- Index for the sweep that re-queues uploads still waiting to be processed
+CREATE INDEX idx_items_image_processing
+    ON inventory.items (updated_at)
+    WHERE image_status = 'PROCESSING';
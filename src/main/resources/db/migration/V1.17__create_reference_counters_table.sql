@@ -0,0 +1,27 @@
+-- Reference number counters: one row per category, plus one per inventory for
+-- items created without a category. Allocation advances a single row instead of
+-- scanning items for MAX(reference_number) under an inventory lock
+CREATE TABLE inventory.reference_counters (
+    scope_id UUID PRIMARY KEY,
+    inventory_id UUID NOT NULL REFERENCES inventory.inventories(id) ON DELETE CASCADE,
+    category_id UUID REFERENCES inventory.categories(id) ON DELETE CASCADE,
+    last_value INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE INDEX idx_reference_counters_inventory ON inventory.reference_counters(inventory_id);
+
+COMMENT ON TABLE inventory.reference_counters IS 'Last allocated item reference number per category or inventory';
+COMMENT ON COLUMN inventory.reference_counters.scope_id IS 'Category id, or inventory id for items without a category';
+
+INSERT INTO inventory.reference_counters (scope_id, inventory_id, category_id, last_value)
+SELECT c.id, c.inventory_id, c.id, COALESCE(MAX(i.reference_number), 0)
+FROM inventory.categories c
+LEFT JOIN inventory.items i ON i.category_id = c.id
+GROUP BY c.id, c.inventory_id;
+
+-- Uncategorised items used to number after every item in the inventory
+INSERT INTO inventory.reference_counters (scope_id, inventory_id, category_id, last_value)
+SELECT inv.id, inv.id, NULL, COALESCE(MAX(i.reference_number), 0)
+FROM inventory.inventories inv
+LEFT JOIN inventory.items i ON i.inventory_id = inv.id
+GROUP BY inv.id;
@@ -0,0 +1,11 @@
+-- Scaled renditions are generated on demand for each ladder width, so an item
+-- can hold several rows of the same rendition distinguished by width
+ALTER TABLE inventory.item_images
+    ADD COLUMN width INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE inventory.item_images DROP CONSTRAINT unique_item_image_rendition;
+
+ALTER TABLE inventory.item_images
+    ADD CONSTRAINT unique_item_image_rendition_width UNIQUE (item_id, rendition, width);
+
+COMMENT ON COLUMN inventory.item_images.width IS 'Ladder width for SCALED and SCALED_THUMBNAIL renditions, 0 otherwise';
@@ -0,0 +1,5 @@
+-- Blobs are streamed in slices with substring(); EXTERNAL storage keeps large values
+-- out of line but uncompressed so a slice reads only the chunks it needs instead of
+-- decompressing the whole value. Image data is already compressed, so nothing is lost.
+-- Applies to rows written from now on.
+ALTER TABLE inventory.blobs ALTER COLUMN data SET STORAGE EXTERNAL;
@@ -0,0 +1,9 @@
+-- Uploads are now kept as a clean MASTER and the reference-number badge is drawn
+-- when IMAGE and SCALED renditions are generated. Recording the number each
+-- rendition was drawn with lets a renumbered item regenerate instead of serving a
+-- stale badge. Existing rows keep NULL: their badge is burned into the only copy.
+ALTER TABLE inventory.item_images
+    ADD COLUMN reference_number INTEGER;
+
+COMMENT ON COLUMN inventory.item_images.reference_number IS 'Reference number drawn into badged IMAGE and SCALED renditions, NULL otherwise';
+COMMENT ON COLUMN inventory.item_images.rendition IS 'ORIGINAL upload awaiting processing, clean MASTER, badged IMAGE and SCALED, THUMBNAIL and SCALED_THUMBNAIL';
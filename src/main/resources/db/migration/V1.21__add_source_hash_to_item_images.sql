@@ -0,0 +1,10 @@
+-- Identical uploads are common (the same photo on several items, retried uploads).
+-- Recording which upload a MASTER and THUMBNAIL were built from lets a repeat upload
+-- reuse them instead of being processed again.
+ALTER TABLE inventory.item_images
+    ADD COLUMN source_hash VARCHAR(64);
+
+CREATE INDEX idx_item_images_master_source ON inventory.item_images (source_hash)
+    WHERE rendition = 'MASTER';
+
+COMMENT ON COLUMN inventory.item_images.source_hash IS 'SHA-256 of the upload a MASTER or THUMBNAIL was built from';
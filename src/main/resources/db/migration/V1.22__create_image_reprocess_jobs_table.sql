@@ -0,0 +1,24 @@
+-- Background regeneration of existing item renditions. A job walks items in id order and
+-- records the last id it finished, so a restarted node resumes where the job stopped; the
+-- lease keeps two nodes from working the same job at once
+CREATE TABLE inventory.image_reprocess_jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    status VARCHAR(20) NOT NULL,
+    last_item_id UUID,
+    total_items INTEGER NOT NULL DEFAULT 0,
+    processed_items INTEGER NOT NULL DEFAULT 0,
+    failed_items INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    lease_owner VARCHAR(64),
+    lease_expires_at TIMESTAMP WITH TIME ZONE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    completed_at TIMESTAMP WITH TIME ZONE
+);
+
+-- At most one job runs at a time
+CREATE UNIQUE INDEX idx_image_reprocess_jobs_running ON inventory.image_reprocess_jobs ((TRUE))
+    WHERE status = 'RUNNING';
+
+COMMENT ON TABLE inventory.image_reprocess_jobs IS 'Progress of background jobs that rebuild item image renditions';
+COMMENT ON COLUMN inventory.image_reprocess_jobs.last_item_id IS 'Keyset cursor: every item with a smaller id has been handled';
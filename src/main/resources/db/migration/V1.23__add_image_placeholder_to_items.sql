@@ -0,0 +1,7 @@
+-- A BlurHash of the thumbnail lets list views paint a placeholder from the list
+-- response alone and load the real thumbnails lazily. Existing images get one
+-- when they are next processed or reprocessed.
+ALTER TABLE inventory.items
+    ADD COLUMN image_placeholder VARCHAR(64);
+
+COMMENT ON COLUMN inventory.items.image_placeholder IS 'BlurHash of the thumbnail, null until one has been computed';
@@ -0,0 +1,8 @@
+-- Item listings are paged by (reference_number, id) after a cursor; these indexes
+-- let each page be read in order from the cursor instead of sorting the whole set
+CREATE INDEX idx_items_category_listing
+    ON inventory.items (category_id, is_deleted, reference_number, id);
+
+CREATE INDEX idx_items_inventory_listing
+    ON inventory.items (inventory_id, reference_number, id)
+    WHERE is_deleted = FALSE;
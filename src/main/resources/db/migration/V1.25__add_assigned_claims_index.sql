@@ -0,0 +1,5 @@
+-- Viewers and claimants only see a collected item when it is assigned to them; the
+-- listing queries probe that per item with EXISTS, which this index answers directly
+CREATE INDEX idx_item_claims_assigned
+    ON inventory.item_claims (item_id, user_id)
+    WHERE status = 'ASSIGNED';
@@ -0,0 +1,7 @@
+-- Delta sync looks up what changed in an inventory after a watermark: items by their own
+-- timestamp, and claims, which carry no inventory, by theirs
+CREATE INDEX idx_items_inventory_updated
+    ON inventory.items (inventory_id, updated_at);
+
+CREATE INDEX idx_item_claims_updated
+    ON inventory.item_claims (updated_at);
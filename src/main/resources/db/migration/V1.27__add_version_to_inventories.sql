@@ -0,0 +1,4 @@
+-- Bumped in the same transaction as every change to an inventory's items, claims,
+-- categories or members, so list endpoints can answer conditional requests from it
+ALTER TABLE inventory.inventories
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,7 @@
+-- Editors page a category without an is_deleted predicate, so is_deleted in the middle of
+-- the key left those reads sorting; keep (reference_number, id) right after category_id
+-- and let the non-editor read filter deleted rows as it walks the index
+DROP INDEX IF EXISTS inventory.idx_items_category_listing;
+
+CREATE INDEX idx_items_category_listing
+    ON inventory.items (category_id, reference_number, id);
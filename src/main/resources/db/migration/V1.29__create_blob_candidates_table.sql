@@ -0,0 +1,9 @@
+-- Blobs that may have lost their last reference. The collector deletes one only after it
+-- has gone untouched for a grace period and no item_images row points at it; anything that
+-- is about to reference a blob touches it first, which restarts the grace period
+CREATE TABLE inventory.blob_candidates (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    touched_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_blob_candidates_touched ON inventory.blob_candidates (touched_at);
@@ -0,0 +1,10 @@
+-- Delta sync collects changed item ids from three sources, each read through its own index:
+-- items by (inventory_id, updated_at) from V1.26, categories by (inventory_id, updated_at),
+-- and claims by (updated_at, item_id) so the join to items needs no heap visit on claims
+DROP INDEX IF EXISTS inventory.idx_item_claims_updated;
+
+CREATE INDEX idx_item_claims_updated_item
+    ON inventory.item_claims (updated_at, item_id);
+
+CREATE INDEX idx_categories_inventory_updated
+    ON inventory.categories (inventory_id, updated_at);